@@ -0,0 +1,2 @@
+-- Monotonic row version used by in-memory template caches to detect stale entries
+ALTER TABLE template ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- Content length (in code points, as char_length counts) and SHA-256 kept next to the content, so list views can show them without reading the TEXT column
+ALTER TABLE template ADD COLUMN content_length INTEGER;
+ALTER TABLE template ADD COLUMN content_hash VARCHAR(64);
+
+UPDATE template
+SET content_length = char_length(content),
+    content_hash = encode(sha256(convert_to(content, 'UTF8')), 'hex');
+
+ALTER TABLE template ALTER COLUMN content_length SET NOT NULL;
+ALTER TABLE template ALTER COLUMN content_hash SET NOT NULL;
@@ -0,0 +1,2 @@
+-- Keyset pagination (scrollTemplates) walks live templates in (updated_at, id) order
+CREATE INDEX idx_template_updated_at_id ON template(updated_at, id) WHERE is_deleted = FALSE;
@@ -0,0 +1,19 @@
+-- Ranked full-text search over template identifiers and descriptions, plus trigram indexes for substring matches
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Search is composed with the list filters and sort as a criteria query, so the vector is an immutable function
+-- of the row, indexed as an expression, which the query spells out to use the index.
+-- 'simple' keeps identifiers and names unstemmed, so search behaves the same for every template language
+CREATE FUNCTION template_search_vector(template_id TEXT, name TEXT, description TEXT) RETURNS TSVECTOR
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$
+    SELECT setweight(to_tsvector('simple', coalesce(template_id, '')), 'A') ||
+           setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+           setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+$$;
+
+-- isDeleted is an ordinary filter in search mode, so the indexes cover deleted rows too
+CREATE INDEX idx_template_search_vector ON template USING GIN (template_search_vector(template_id, name, description));
+CREATE INDEX idx_template_template_id_trgm ON template USING GIN (template_id gin_trgm_ops);
+CREATE INDEX idx_template_name_trgm ON template USING GIN (name gin_trgm_ops);
+CREATE INDEX idx_template_description_trgm ON template USING GIN (description gin_trgm_ops);
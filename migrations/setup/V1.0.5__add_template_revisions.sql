@@ -0,0 +1,29 @@
+-- Immutable template revisions: every write appends a row and template.revision points at the current one.
+-- Revisions are numbered per template uuid, so a pinned revision always resolves to the same content and a rename
+-- keeps the template's history and numbering.
+CREATE TABLE template_revision (
+    id BIGSERIAL PRIMARY KEY,
+    template_uuid UUID NOT NULL,
+    template_id VARCHAR(255) NOT NULL,
+    language VARCHAR(10) NOT NULL,
+    revision INTEGER NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    content TEXT NOT NULL,
+    content_length INTEGER NOT NULL,
+    content_hash VARCHAR(64) NOT NULL,
+    category VARCHAR(50) NOT NULL,
+    param_schema JSONB,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_by UUID,
+
+    CONSTRAINT uq_template_revision UNIQUE (template_uuid, revision)
+);
+
+ALTER TABLE template ADD COLUMN revision INTEGER NOT NULL DEFAULT 1;
+
+INSERT INTO template_revision (template_uuid, template_id, language, revision, name, description, content,
+                               content_length, content_hash, category, param_schema, created_at, created_by)
+SELECT uuid, template_id, language, 1, name, description, content,
+       content_length, content_hash, category, param_schema, updated_at, updated_by
+FROM template;
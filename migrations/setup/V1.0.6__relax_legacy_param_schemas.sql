@@ -0,0 +1,26 @@
+-- Param schemas derived before types were enforced declared every root variable as "string", including
+-- roots used as objects ({{user.name}}), and such params were only checked for presence. Dropping the type
+-- of those entries leaves them untyped, so renders that passed an object keep working.
+UPDATE template t
+SET param_schema = (
+    SELECT jsonb_object_agg(p.key, CASE
+        WHEN p.value ->> 'type' = 'string'
+             AND t.content ~ ('\{\{[~\s]*' || regexp_replace(p.key, '(\W)', '\\\1', 'g') || '\.')
+        THEN p.value - 'type'
+        ELSE p.value
+    END)
+    FROM jsonb_each(t.param_schema) p
+)
+WHERE jsonb_typeof(t.param_schema) = 'object' AND t.param_schema <> '{}'::jsonb;
+
+UPDATE template_revision r
+SET param_schema = (
+    SELECT jsonb_object_agg(p.key, CASE
+        WHEN p.value ->> 'type' = 'string'
+             AND r.content ~ ('\{\{[~\s]*' || regexp_replace(p.key, '(\W)', '\\\1', 'g') || '\.')
+        THEN p.value - 'type'
+        ELSE p.value
+    END)
+    FROM jsonb_each(r.param_schema) p
+)
+WHERE jsonb_typeof(r.param_schema) = 'object' AND r.param_schema <> '{}'::jsonb;
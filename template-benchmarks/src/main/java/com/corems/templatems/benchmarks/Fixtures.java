@@ -0,0 +1,196 @@
+package com.corems.templatems.benchmarks;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.service.TemplateSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Templates and render parameters shared by the benchmarks, sized after real traffic: a one-line SMS,
+ * a transactional email and a ~100 KB document with a large table.
+ */
+public final class Fixtures {
+
+    private static final String SMS = "Hi {{user.firstName}}, your order {{order.id}} is {{order.status}}. Track it at {{trackingUrl}}";
+
+    private static final String EMAIL = """
+            <!DOCTYPE html>
+            <html>
+            <head><title>{{companyName}} - Order {{order.id}}</title></head>
+            <body style="font-family: Arial, sans-serif; color: #333333;">
+              <table width="100%" cellpadding="0" cellspacing="0">
+                <tr><td><h1>Thanks for your order, {{user.firstName}}!</h1></td></tr>
+                <tr><td>
+                  <p>We have received your order <strong>#{{order.id}}</strong> placed on {{order.date}}.</p>
+                  {{#if user.emailVerified}}
+                  <p>A copy of this receipt has been sent to {{user.email}}.</p>
+                  {{else}}
+                  <p>Please <a href="{{verificationUrl}}">verify your email address</a> to receive receipts.</p>
+                  {{/if}}
+                </td></tr>
+                <tr><td>
+                  <table width="100%" border="1" cellpadding="4">
+                    <tr><th>Item</th><th>Qty</th><th>Price</th></tr>
+                    {{#each order.items}}
+                    <tr><td>{{name}}</td><td>{{quantity}}</td><td>{{price}}</td></tr>
+                    {{/each}}
+                  </table>
+                  <p>Total: <strong>{{order.total}}</strong></p>
+                </td></tr>
+                <tr><td>
+                  <p>Shipping to: {{order.shipping.name}}, {{order.shipping.street}}, {{order.shipping.city}} {{order.shipping.zip}}</p>
+                  <p style="font-size: 12px; color: #999999;">You are receiving this email because you placed an order at {{companyName}}.
+                  If you have questions, reply to this email or contact support at {{supportEmail}}.</p>
+                </td></tr>
+              </table>
+            </body>
+            </html>
+            """;
+
+    private static final String DOCUMENT_SECTION = """
+            <section>
+              <h2>Section {{@index}}: {{title}}</h2>
+              <p>Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore et dolore magna
+              aliqua. Ut enim ad minim veniam, quis nostrud exercitation ullamco laboris nisi ut aliquip ex ea commodo consequat.
+              Duis aute irure dolor in reprehenderit in voluptate velit esse cillum dolore eu fugiat nulla pariatur.</p>
+              <p>Prepared for {{../customer.name}} ({{../customer.id}}) on {{../generatedAt}}.</p>
+              {{#if highlighted}}<p class="note">{{note}}</p>{{/if}}
+            </section>
+            """;
+
+    public static final int DOCUMENT_ROWS = 1000;
+
+    private Fixtures() {
+    }
+
+    public static TemplateSnapshot snapshot(String name) {
+        return switch (name) {
+            case "sms" -> snapshot("order-sms", TemplateCategory.SMS, SMS);
+            case "email" -> snapshot("order-email", TemplateCategory.EMAIL, EMAIL);
+            case "document" -> snapshot("statement", TemplateCategory.DOCUMENT, document());
+            default -> throw new IllegalArgumentException("Unknown fixture: " + name);
+        };
+    }
+
+    /**
+     * Params matching {@link #snapshot(String)}: flat for the SMS, nested for the email, a large {@code #each} for the document.
+     */
+    public static Map<String, Object> params(String name) {
+        return switch (name) {
+            case "sms" -> nestedParams(3);
+            case "email" -> nestedParams(5);
+            case "document" -> documentParams();
+            default -> throw new IllegalArgumentException("Unknown fixture: " + name);
+        };
+    }
+
+    /**
+     * Request param shapes for the validation and resolution benchmarks.
+     */
+    public static Map<String, Object> paramShape(String shape) {
+        return switch (shape) {
+            case "flat" -> flatParams(20);
+            case "nested" -> nestedParams(5);
+            case "each" -> documentParams();
+            default -> throw new IllegalArgumentException("Unknown param shape: " + shape);
+        };
+    }
+
+    /**
+     * A template using every param of {@link #paramShape(String)}, for the binding benchmarks.
+     */
+    public static String paramShapeTemplate(String shape) {
+        return switch (shape) {
+            case "flat" -> flatTemplate(20);
+            case "nested" -> EMAIL;
+            case "each" -> document();
+            default -> throw new IllegalArgumentException("Unknown param shape: " + shape);
+        };
+    }
+
+    public static Map<String, Object> paramSchema(Map<String, Object> params) {
+        Map<String, Object> schema = new HashMap<>();
+        params.forEach((name, value) -> schema.put(name, Map.of(
+            "required", true,
+            "type", value instanceof Map ? "object" : value instanceof List ? "array" : "string")));
+        return schema;
+    }
+
+    public static TemplateSnapshot snapshot(String templateId, TemplateCategory category, String content) {
+        return snapshot(templateId, category, content, Map.of());
+    }
+
+    public static TemplateSnapshot snapshot(String templateId, TemplateCategory category, String content, Map<String, Object> paramSchema) {
+        return new TemplateSnapshot(UUID.nameUUIDFromBytes(templateId.getBytes()), templateId, "en", templateId, null,
+            category, 1L, content, paramSchema);
+    }
+
+    private static String document() {
+        StringBuilder content = new StringBuilder("<html><body><h1>Statement for {{customer.name}}</h1>\n");
+        // Static preamble sections bring the source to ~100 KB, like the long legal/terms blocks in real documents.
+        for (int i = 0; i < 150; i++) {
+            content.append(DOCUMENT_SECTION.replace("{{@index}}", String.valueOf(i))
+                .replace("{{title}}", "{{customer.name}}")
+                .replace("{{../", "{{")
+                .replace("{{#if highlighted}}", "{{#if customer.vip}}")
+                .replace("{{note}}", "{{customer.id}}"));
+        }
+        content.append("{{#each rows}}").append(DOCUMENT_SECTION).append("{{/each}}\n</body></html>");
+        return content.toString();
+    }
+
+    private static String flatTemplate(int size) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            content.append("<p>{{param").append(i).append("}}</p>\n");
+        }
+        return content.toString();
+    }
+
+    private static Map<String, Object> flatParams(int size) {
+        Map<String, Object> params = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            params.put("param" + i, "value " + i);
+        }
+        return params;
+    }
+
+    private static Map<String, Object> nestedParams(int items) {
+        List<Map<String, Object>> orderItems = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            orderItems.add(Map.of("name", "Product " + i, "quantity", i + 1, "price", "$" + (10 + i) + ".99"));
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("user", Map.of("firstName", "John", "email", "john@example.com", "emailVerified", true));
+        params.put("order", Map.of(
+            "id", "A-10042",
+            "status", "shipped",
+            "date", "2026-10-17",
+            "total", "$149.95",
+            "items", orderItems,
+            "shipping", Map.of("name", "John Doe", "street", "1 Main St", "city", "Springfield", "zip", "12345")));
+        params.put("trackingUrl", "https://example.com/track/A-10042");
+        params.put("verificationUrl", "https://example.com/verify");
+        params.put("companyName", "CoreMS");
+        params.put("supportEmail", "support@example.com");
+        return params;
+    }
+
+    private static Map<String, Object> documentParams() {
+        List<Map<String, Object>> rows = new ArrayList<>(DOCUMENT_ROWS);
+        for (int i = 0; i < DOCUMENT_ROWS; i++) {
+            rows.add(Map.of("title", "Transaction " + i, "highlighted", i % 10 == 0, "note", "Flagged for review"));
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("customer", Map.of("name", "ACME Corp", "id", "C-001", "vip", true));
+        params.put("generatedAt", "2026-10-17");
+        params.put("rows", rows);
+        return params;
+    }
+}
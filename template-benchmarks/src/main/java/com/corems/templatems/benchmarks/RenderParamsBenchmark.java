@@ -0,0 +1,157 @@
+package com.corems.templatems.benchmarks;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.service.ParamValidator;
+import com.corems.templatems.app.service.RenderedOutputCache;
+import com.corems.templatems.app.service.RenderingEngine;
+import com.corems.templatems.app.service.TemplateRenderMetrics;
+import com.corems.templatems.app.service.TemplateRenderingService;
+import com.corems.templatems.app.service.TemplateSnapshot;
+import com.corems.templatems.app.service.TemplateSnapshotCache;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jknack.handlebars.Context;
+import com.github.jknack.handlebars.JsonNodeValueResolver;
+import com.github.jknack.handlebars.Template;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-render parameter handling: schema validation alone, and {@link TemplateRenderingService#render} of a
+ * template whose output ignores the params, so the measurement is validation plus legacy {@code template_<id>}
+ * resolution around a trivial apply.
+ * <p>
+ * The {@code parse*} and {@code apply*} pairs compare binding the request body as the {@code Map} it is
+ * deserialised to with binding it as a Jackson tree through {@link JsonNodeValueResolver}, on a template using
+ * every param. Their {@code gc.alloc.rate.norm} is what kept params as maps: the tree saves nothing on parsing,
+ * and interpreted rendering allocates the same either way, mostly for per-item contexts, while
+ * {@code renderBytecode} removes most of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderParamsBenchmark {
+
+    private static final TypeReference<Map<String, Object>> PARAMS = new TypeReference<>() { };
+
+    @Param({"flat", "nested", "each"})
+    public String shape;
+
+    private TemplateRenderingService templateRenderingService;
+    private ParamValidator paramValidator;
+    private TemplateSnapshot snapshot;
+    private Map<String, Object> params;
+    private Map<String, Object> paramsWithTemplateRefs;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] requestParams;
+    private Map<String, Object> parsedParams;
+    private JsonNode parsedTree;
+    private Template interpreted;
+    private RenderingEngine bytecodeEngine;
+    private TemplateSnapshot bound;
+
+    @Setup
+    public void setUp() throws IOException {
+        TemplateServiceProperties properties = new TemplateServiceProperties();
+        TemplateSnapshotCache templateSnapshotCache = new TemplateSnapshotCache(null, null, properties);
+        templateSnapshotCache.prime(Fixtures.snapshot("header", TemplateCategory.COMMON, "<header>{{companyName}}</header>"),
+            templateSnapshotCache.generation());
+        templateSnapshotCache.prime(Fixtures.snapshot("footer", TemplateCategory.COMMON, "<footer>{{supportEmail}}</footer>"),
+            templateSnapshotCache.generation());
+        TemplateRenderMetrics metrics = new TemplateRenderMetrics(new SimpleMeterRegistry());
+        RenderingEngine renderingEngine = new RenderingEngine(properties, templateSnapshotCache, metrics);
+        templateRenderingService = new TemplateRenderingService(templateSnapshotCache, renderingEngine,
+            new RenderedOutputCache(properties), metrics);
+
+        params = Fixtures.paramShape(shape);
+        paramValidator = ParamValidator.compile(Fixtures.paramSchema(params));
+        snapshot = Fixtures.snapshot("order", TemplateCategory.EMAIL, "ok", Fixtures.paramSchema(params));
+
+        paramsWithTemplateRefs = new HashMap<>(params);
+        paramsWithTemplateRefs.put("template_header", true);
+        paramsWithTemplateRefs.put("template_footer", true);
+
+        requestParams = objectMapper.writeValueAsBytes(params);
+        parsedParams = objectMapper.readValue(requestParams, PARAMS);
+        parsedTree = objectMapper.readTree(requestParams);
+        bound = Fixtures.snapshot("bound", TemplateCategory.DOCUMENT, Fixtures.paramShapeTemplate(shape));
+        interpreted = renderingEngine.compile(bound.content());
+
+        TemplateServiceProperties bytecode = new TemplateServiceProperties();
+        bytecode.getRender().setBackend(TemplateServiceProperties.RenderBackend.BYTECODE);
+        bytecodeEngine = new RenderingEngine(bytecode, templateSnapshotCache, metrics);
+        bytecodeEngine.precompile(bound);
+    }
+
+    @Benchmark
+    public Map<String, Object> validateRenderParams() {
+        paramValidator.validate(params);
+        return params;
+    }
+
+    @Benchmark
+    public String render() {
+        return templateRenderingService.render(snapshot, params);
+    }
+
+    @Benchmark
+    public String renderWithTemplateRefs() {
+        return templateRenderingService.render(snapshot, paramsWithTemplateRefs);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseParamsAsMap() throws IOException {
+        return objectMapper.readValue(requestParams, PARAMS);
+    }
+
+    @Benchmark
+    public JsonNode parseParamsAsTree() throws IOException {
+        return objectMapper.readTree(requestParams);
+    }
+
+    @Benchmark
+    public String applyMapParams() throws IOException {
+        return apply(Context.newContext(parsedParams));
+    }
+
+    @Benchmark
+    public String applyTreeParams() throws IOException {
+        return apply(Context.newBuilder(parsedTree).resolver(JsonNodeValueResolver.INSTANCE).build());
+    }
+
+    @Benchmark
+    public String renderBytecode() {
+        return bytecodeEngine.render(bound, parsedParams);
+    }
+
+    /**
+     * Writes through a {@link StringWriter}, as {@link RenderingEngine} does, so the output buffer is not what is measured.
+     */
+    private String apply(Context context) throws IOException {
+        StringWriter writer = new StringWriter(bound.content().length());
+        interpreted.apply(context, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.corems.templatems.benchmarks;
+
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.service.RenderingEngine;
+import com.corems.templatems.app.service.TemplateSnapshot;
+import com.corems.templatems.app.service.TemplateRenderMetrics;
+import com.corems.templatems.app.service.TemplateSnapshotCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RenderingEngine#render} with the compiled template cached (hit) and recompiled on every call (miss),
+ * on the interpreted and the bytecode backend. On the bytecode backend a miss includes generating the class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderingEngineBenchmark {
+
+    @Param({"sms", "email", "document"})
+    public String fixture;
+
+    @Param({"interpreted", "bytecode"})
+    public String backend;
+
+    private RenderingEngine renderingEngine;
+    private TemplateSnapshot snapshot;
+    private Map<String, Object> params;
+
+    @Setup
+    public void setUp() {
+        // Fixtures use no partials, so the snapshot cache is never asked to load anything. Render meters are
+        // live, so their recording cost is part of every measurement.
+        TemplateServiceProperties properties = new TemplateServiceProperties();
+        properties.getRender().setBackend(TemplateServiceProperties.RenderBackend.valueOf(backend.toUpperCase(Locale.ROOT)));
+        renderingEngine = new RenderingEngine(properties, new TemplateSnapshotCache(null, null, properties),
+            new TemplateRenderMetrics(new SimpleMeterRegistry()));
+        snapshot = Fixtures.snapshot(fixture);
+        params = Fixtures.params(fixture);
+        renderingEngine.precompile(snapshot);
+    }
+
+    @Benchmark
+    public String renderCacheHit() {
+        return renderingEngine.render(snapshot, params);
+    }
+
+    @Benchmark
+    public String renderCacheMiss() {
+        renderingEngine.invalidateCache(snapshot.cacheKey());
+        return renderingEngine.render(snapshot, params);
+    }
+
+    @Benchmark
+    public void renderToWriter(Blackhole blackhole) {
+        renderingEngine.render(snapshot, params, new BlackholeWriter(blackhole));
+    }
+
+    /**
+     * Stands in for the servlet response writer of the raw HTML endpoint.
+     */
+    private static final class BlackholeWriter extends Writer {
+
+        private final Blackhole blackhole;
+
+        private BlackholeWriter(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            blackhole.consume(buffer);
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            blackhole.consume(text);
+        }
+
+        @Override
+        public Writer append(CharSequence text) {
+            blackhole.consume(text);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
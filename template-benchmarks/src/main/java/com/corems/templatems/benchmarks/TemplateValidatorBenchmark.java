@@ -0,0 +1,52 @@
+package com.corems.templatems.benchmarks;
+
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.service.RenderingEngine;
+import com.corems.templatems.app.service.TemplateRenderMetrics;
+import com.corems.templatems.app.service.TemplateSnapshotCache;
+import com.corems.templatems.app.service.TemplateValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-path analysis (compile, syntax check, param schema) run on every template create and update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateValidatorBenchmark {
+
+    @Param({"sms", "email", "document"})
+    public String fixture;
+
+    private TemplateValidator templateValidator;
+    private String content;
+
+    @Setup
+    public void setUp() {
+        TemplateServiceProperties properties = new TemplateServiceProperties();
+        templateValidator = new TemplateValidator(new RenderingEngine(properties,
+            new TemplateSnapshotCache(null, null, properties), new TemplateRenderMetrics(new SimpleMeterRegistry())));
+        content = Fixtures.snapshot(fixture).content();
+    }
+
+    @Benchmark
+    public TemplateValidator.Analysis analyze() {
+        return templateValidator.analyze(content);
+    }
+}
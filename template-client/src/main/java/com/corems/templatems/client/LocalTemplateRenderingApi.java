@@ -0,0 +1,369 @@
+package com.corems.templatems.client;
+
+import com.corems.templatems.ApiClient;
+import com.corems.templatems.api.model.RenderTemplateRequest;
+import com.corems.templatems.api.model.RenderTemplateResponse;
+import com.corems.templatems.api.model.TemplateParamDefinition;
+import com.corems.templatems.api.model.TemplateResponse;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Parser;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.cache.TemplateCache;
+import com.github.jknack.handlebars.io.AbstractTemplateSource;
+import com.github.jknack.handlebars.io.TemplateLoader;
+import com.github.jknack.handlebars.io.TemplateSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * {@link TemplateRenderingApi} that renders in this process. Templates are fetched with
+ * {@code getTemplateByTemplateId}, compiled with the same Handlebars setup template-ms uses and revalidated in
+ * the background once older than {@code revalidateAfter}; an unchanged template answers {@code 304} and keeps
+ * its compiled form. Pinned revisions never change and are never revalidated.
+ * <p>
+ * Anything the service would reject or treat specially (unknown templates, params failing the schema, legacy
+ * {@code template_<id>} params, values that would not survive a JSON round trip unchanged) and any local
+ * failure is rendered remotely, so errors and edge cases keep coming from template-ms.
+ */
+public class LocalTemplateRenderingApi extends TemplateRenderingApi {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalTemplateRenderingApi.class);
+
+    private final LoadingCache<String, Optional<LocalTemplate>> templates;
+    private final Handlebars handlebars;
+    private final ThreadLocal<String> renderLanguage = new ThreadLocal<>();
+
+    public LocalTemplateRenderingApi(ApiClient apiClient, TemplateMsClientProperties.LocalRender properties) {
+        super(apiClient);
+        this.handlebars = new Handlebars(new PartialLoader()).with(new LocalTemplateCache());
+        this.templates = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .refreshAfterWrite(properties.getRevalidateAfter())
+                .build(new TemplateFetcher());
+    }
+
+    @Override
+    public RenderTemplateResponse renderTemplate(String templateId, RenderTemplateRequest renderTemplateRequest, String language, Integer revision) {
+        Map<String, Object> params = renderTemplateRequest.getParams() != null ? renderTemplateRequest.getParams() : Map.of();
+        try {
+            RenderTemplateResponse response = renderLocally(templateId, language, revision, params);
+            if (response != null) {
+                return response;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Local render of template '{}' failed, rendering remotely: {}", templateId, e.getMessage());
+        }
+        return super.renderTemplate(templateId, renderTemplateRequest, language, revision);
+    }
+
+    public void clearCache() {
+        templates.invalidateAll();
+    }
+
+    /**
+     * Returns {@code null} when the render has to be done by the service.
+     */
+    private RenderTemplateResponse renderLocally(String templateId, String language, Integer revision,
+                                                 Map<String, Object> params) throws IOException {
+        if (!isLocallyRenderable(params)) {
+            return null;
+        }
+
+        LocalTemplate template = templates.get(cacheKey(templateId, language, revision)).orElse(null);
+        if (template == null || !template.accepts(params)) {
+            return null;
+        }
+
+        String previousLanguage = renderLanguage.get();
+        renderLanguage.set(template.template().getLanguage());
+        try {
+            return new RenderTemplateResponse()
+                    .html(template.compiled().apply(params))
+                    .revision(template.template().getRevision());
+        } finally {
+            if (previousLanguage == null) {
+                renderLanguage.remove();
+            } else {
+                renderLanguage.set(previousLanguage);
+            }
+        }
+    }
+
+    private static boolean isLocallyRenderable(Map<String, Object> params) {
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            // template_<id> params are replaced with template content by the service.
+            if (entry.getKey().startsWith("template_") || !isJsonValue(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The service sees params after JSON serialization; other types (dates, enums, beans, big decimals) may
+     * print differently there than they would here.
+     */
+    private static boolean isJsonValue(Object value) {
+        if (value == null || value instanceof CharSequence || value instanceof Boolean || value instanceof Character
+                || value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof Double || value instanceof Float) {
+            return true;
+        }
+        if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String) || !isJsonValue(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (value instanceof Collection<?> collection) {
+            for (Object item : collection) {
+                if (!isJsonValue(item)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static String cacheKey(String templateId, String language) {
+        return templateId + ":" + (language != null ? language : "");
+    }
+
+    private static String cacheKey(String templateId, String language, Integer revision) {
+        return revision != null ? cacheKey(templateId, language) + "@" + revision : cacheKey(templateId, language);
+    }
+
+    private record ParamRule(String name, boolean required, TemplateParamDefinition.TypeEnum type, Pattern pattern) {
+
+        boolean accepts(Map<String, Object> params) {
+            Object value = params.get(name);
+            if (value == null) {
+                return !required || params.containsKey(name);
+            }
+            boolean typeMatches = switch (type) {
+                case STRING -> value instanceof CharSequence || value instanceof Number || value instanceof Boolean;
+                case NUMBER -> value instanceof Number;
+                case BOOLEAN -> value instanceof Boolean;
+                case OBJECT -> value instanceof Map;
+                case ARRAY -> value instanceof Collection;
+            };
+            return typeMatches && (pattern == null || type != TemplateParamDefinition.TypeEnum.STRING
+                    || pattern.matcher(value.toString()).matches());
+        }
+    }
+
+    private record LocalTemplate(String key, TemplateResponse template, String etag, Template compiled, List<ParamRule> rules) {
+
+        static LocalTemplate of(String key, TemplateResponse template, String etag, Template compiled) {
+            List<ParamRule> rules = new ArrayList<>();
+            if (template.getParamSchema() != null) {
+                template.getParamSchema().forEach((name, definition) -> rules.add(new ParamRule(
+                        name,
+                        Boolean.TRUE.equals(definition.getRequired()),
+                        definition.getType() != null ? definition.getType() : TemplateParamDefinition.TypeEnum.STRING,
+                        definition.getPattern() != null ? Pattern.compile(definition.getPattern()) : null)));
+            }
+            return new LocalTemplate(key, template, etag, compiled, List.copyOf(rules));
+        }
+
+        boolean accepts(Map<String, Object> params) {
+            for (ParamRule rule : rules) {
+                if (!rule.accepts(params)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean hasContentOf(TemplateResponse other) {
+            if (template.getContentHash() != null && other.getContentHash() != null) {
+                return template.getContentHash().equals(other.getContentHash());
+            }
+            return Objects.equals(template.getContent(), other.getContent());
+        }
+    }
+
+    /**
+     * Loads {@code templateId:language} and pinned {@code templateId:language@revision} keys; an empty language
+     * asks the service for its default one. Unknown templates are cached as empty so missing partial translations
+     * are not re-fetched on every render. Revalidation sends the cached ETag, so an unchanged template costs a
+     * {@code 304} without a body, and is skipped for revisions that were found.
+     */
+    private final class TemplateFetcher implements CacheLoader<String, Optional<LocalTemplate>> {
+
+        @Override
+        public Optional<LocalTemplate> load(String key) throws IOException {
+            return fetch(key, null);
+        }
+
+        @Override
+        public Optional<LocalTemplate> reload(String key, Optional<LocalTemplate> previous) throws IOException {
+            if (previous.isPresent() && isPinned(key)) {
+                return previous;
+            }
+            return fetch(key, previous.orElse(null));
+        }
+
+        private Optional<LocalTemplate> fetch(String key, LocalTemplate previous) throws IOException {
+            int separator = key.lastIndexOf(':');
+            String templateId = key.substring(0, separator);
+            String suffix = key.substring(separator + 1);
+            int revisionSeparator = suffix.indexOf('@');
+            String revision = revisionSeparator >= 0 ? suffix.substring(revisionSeparator + 1) : null;
+            String language = revisionSeparator >= 0 ? suffix.substring(0, revisionSeparator) : suffix;
+            if (language.isEmpty()) {
+                language = null;
+            }
+
+            ResponseEntity<TemplateResponse> response;
+            try {
+                response = getTemplateByTemplateIdWithHttpInfo(templateId, language,
+                        revision != null ? Integer.valueOf(revision) : null, previous != null ? previous.etag() : null);
+            } catch (HttpClientErrorException.NotFound e) {
+                return Optional.empty();
+            }
+
+            if (previous != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                return Optional.of(previous);
+            }
+            TemplateResponse template = response.getBody();
+            return Optional.of(LocalTemplate.of(key, template, response.getHeaders().getETag(),
+                    handlebars.compile(new LocalTemplateSource(key, template))));
+        }
+    }
+
+    private static boolean isPinned(String key) {
+        return key.indexOf('@', key.lastIndexOf(':')) >= 0;
+    }
+
+    /**
+     * Reuses the compiled template of the cached entry while its content is unchanged, so revalidation and
+     * partial lookups only parse templates that actually changed.
+     */
+    private final class LocalTemplateCache implements TemplateCache {
+
+        @Override
+        public Template get(TemplateSource source, Parser parser) throws IOException {
+            Optional<LocalTemplate> cached = templates.getIfPresent(source.filename());
+            if (cached != null && cached.isPresent() && cached.get().hasContentOf(((LocalTemplateSource) source).template)) {
+                return cached.get().compiled();
+            }
+            return parser.parse(source);
+        }
+
+        @Override
+        public void evict(TemplateSource source) {
+            templates.invalidate(source.filename());
+        }
+
+        @Override
+        public void clear() {
+            templates.invalidateAll();
+        }
+
+        @Override
+        public TemplateCache setReload(boolean reload) {
+            return this;
+        }
+    }
+
+    /**
+     * Resolves {@code {{> templateId}}} partials like the service does: in the language of the template being
+     * rendered, falling back to the default language. Prefix, suffix and charset do not apply to partials
+     * looked up by id in memory, so setting them is ignored.
+     */
+    private final class PartialLoader implements TemplateLoader {
+
+        @Override
+        public TemplateSource sourceAt(String location) throws IOException {
+            String templateId = resolve(location);
+            String language = renderLanguage.get();
+
+            Optional<LocalTemplate> partial = language != null ? templates.get(cacheKey(templateId, language)) : Optional.empty();
+            if (partial.isEmpty()) {
+                partial = templates.get(cacheKey(templateId, null));
+            }
+            return partial.map(found -> new LocalTemplateSource(found.key(), found.template()))
+                    .orElseThrow(() -> new FileNotFoundException(templateId));
+        }
+
+        @Override
+        public String resolve(String location) {
+            return location.startsWith("/") ? location.substring(1) : location;
+        }
+
+        @Override
+        public String getPrefix() {
+            return "";
+        }
+
+        @Override
+        public String getSuffix() {
+            return "";
+        }
+
+        @Override
+        public void setPrefix(String prefix) {
+        }
+
+        @Override
+        public void setSuffix(String suffix) {
+        }
+
+        @Override
+        public void setCharset(Charset charset) {
+        }
+
+        @Override
+        public Charset getCharset() {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private static final class LocalTemplateSource extends AbstractTemplateSource {
+
+        private final String key;
+        private final TemplateResponse template;
+
+        private LocalTemplateSource(String key, TemplateResponse template) {
+            this.key = key;
+            this.template = template;
+        }
+
+        @Override
+        public String content(Charset charset) {
+            return template.getContent();
+        }
+
+        @Override
+        public String filename() {
+            return key;
+        }
+
+        @Override
+        public long lastModified() {
+            return template.getUpdatedAt() != null ? template.getUpdatedAt().toInstant().toEpochMilli() : 0L;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.corems.templatems.client;
+
+import com.corems.templatems.api.model.BatchRenderRequest;
+import com.corems.templatems.api.model.BatchRenderResponse;
+import com.corems.templatems.api.model.RenderTemplateRequest;
+import com.corems.templatems.api.model.RenderTemplateResponse;
+import com.corems.templatems.api.model.TemplateResponse;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * {@link CompletableFuture} facade over the generated blocking APIs. Each call runs on its own virtual thread,
+ * so thousands of renders can be issued at once without a platform thread each, and goes through the same
+ * {@code templateRestClient} (auth, limits, compression, local rendering) as blocking calls.
+ * <p>
+ * At most {@code maxConcurrency} calls run at a time; the rest wait as parked virtual threads rather than
+ * blocking the caller. A {@link TaskDecorator} bean, if present, is applied on the calling thread so request
+ * context (e.g. the security context) reaches the call.
+ */
+public class TemplateMsAsyncClient implements AutoCloseable {
+
+    private final TemplateRenderingApi renderingApi;
+    private final TemplateManagementApi managementApi;
+    private final SimpleAsyncTaskExecutor executor;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+
+    public TemplateMsAsyncClient(TemplateRenderingApi renderingApi, TemplateManagementApi managementApi,
+                                 int maxConcurrency, TaskDecorator taskDecorator) {
+        this.renderingApi = renderingApi;
+        this.managementApi = managementApi;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.executor = new SimpleAsyncTaskExecutor("templatems-async-");
+        this.executor.setVirtualThreads(true);
+        if (taskDecorator != null) {
+            this.executor.setTaskDecorator(taskDecorator);
+        }
+    }
+
+    public CompletableFuture<RenderTemplateResponse> renderTemplate(String templateId, RenderTemplateRequest request, String language) {
+        return renderTemplate(templateId, request, language, null);
+    }
+
+    public CompletableFuture<RenderTemplateResponse> renderTemplate(String templateId, RenderTemplateRequest request, String language,
+                                                                    Integer revision) {
+        return rendering(api -> api.renderTemplate(templateId, request, language, revision));
+    }
+
+    public CompletableFuture<BatchRenderResponse> renderTemplatesBatch(BatchRenderRequest request) {
+        return rendering(api -> api.renderTemplatesBatch(request));
+    }
+
+    public CompletableFuture<TemplateResponse> getTemplateByTemplateId(String templateId, String language) {
+        return rendering(api -> api.getTemplateByTemplateId(templateId, language, null, null));
+    }
+
+    /**
+     * Runs any {@link TemplateRenderingApi} operation asynchronously.
+     */
+    public <T> CompletableFuture<T> rendering(Function<TemplateRenderingApi, T> call) {
+        return submit(call, renderingApi);
+    }
+
+    /**
+     * Runs any {@link TemplateManagementApi} operation asynchronously.
+     */
+    public <T> CompletableFuture<T> management(Function<TemplateManagementApi, T> call) {
+        return submit(call, managementApi);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getActiveCalls() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int getQueuedCalls() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <A, T> CompletableFuture<T> submit(Function<A, T> call, A api) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return call.apply(api);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+}
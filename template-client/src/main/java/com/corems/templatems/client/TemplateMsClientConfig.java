@@ -1,13 +1,26 @@
 package com.corems.templatems.client;
 
 import com.corems.templatems.ApiClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+
 @AutoConfiguration
+@EnableConfigurationProperties(TemplateMsClientProperties.class)
 public class TemplateMsClientConfig {
 
     @Value("${templatems.base-url:http://localhost:3004}")
@@ -15,10 +28,24 @@ public class TemplateMsClientConfig {
 
     @Bean(name = "templateRestClient")
     @ConditionalOnMissingBean(name = "templateRestClient")
-    public RestClient templateRestClient(RestClient.Builder inboundRestClientBuilder) {
-        return inboundRestClientBuilder
+    public RestClient templateRestClient(RestClient.Builder inboundRestClientBuilder, TemplateMsClientProperties properties,
+                                         TemplateMsConnectionLimiter templateMsConnectionLimiter) {
+        TemplateMsClientProperties.Http http = properties.getHttp();
+        // The inbound builder is shared with other clients, so template-ms settings go on a copy.
+        RestClient.Builder builder = inboundRestClientBuilder.clone()
                 .baseUrl(templateMsBaseUrl)
-                .build();
+                .requestFactory(templateRequestFactory(http))
+                .requestInterceptor(templateMsConnectionLimiter);
+        if (http.isCompression()) {
+            builder.requestInterceptor(new GzipResponseInterceptor());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TemplateMsConnectionLimiter templateMsConnectionLimiter(TemplateMsClientProperties properties) {
+        return new TemplateMsConnectionLimiter(properties.getHttp().getMaxConnections(), properties.getHttp().getAcquireTimeout());
     }
 
     @Bean(name = "templateApiClient")
@@ -35,7 +62,70 @@ public class TemplateMsClientConfig {
 
     @Bean
     @ConditionalOnMissingBean(name = "renderingApi")
-    public TemplateRenderingApi renderingApi(ApiClient templateApiClient) {
+    public TemplateRenderingApi renderingApi(ApiClient templateApiClient, TemplateMsClientProperties properties) {
+        if (properties.getLocalRender().isEnabled()) {
+            return new LocalTemplateRenderingApi(templateApiClient, properties.getLocalRender());
+        }
         return new TemplateRenderingApi(templateApiClient);
     }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TemplateMsAsyncClient templateMsAsyncClient(TemplateRenderingApi renderingApi, TemplateManagementApi templatesApi,
+                                                       TemplateMsClientProperties properties,
+                                                       ObjectProvider<TaskDecorator> taskDecorator) {
+        Integer maxConcurrency = properties.getAsync().getMaxConcurrency();
+        return new TemplateMsAsyncClient(renderingApi, templatesApi,
+                maxConcurrency != null ? maxConcurrency : properties.getHttp().getMaxConnections(),
+                taskDecorator.getIfUnique());
+    }
+
+    /**
+     * One JDK client per application: it keeps connections alive and negotiates HTTP/2, which multiplexes
+     * concurrent calls over a single connection per template-ms instance.
+     */
+    private static ClientHttpRequestFactory templateRequestFactory(TemplateMsClientProperties.Http http) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(http.getVersion())
+                .connectTimeout(http.getConnectTimeout())
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(http.getReadTimeout());
+        return requestFactory;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class TemplateMsClientMetricsConfig {
+
+        @Bean
+        public MeterBinder templateMsConnectionMetrics(TemplateMsConnectionLimiter templateMsConnectionLimiter) {
+            return registry -> {
+                Gauge.builder("templatems.client.connections.active", templateMsConnectionLimiter,
+                                TemplateMsConnectionLimiter::getActiveConnections)
+                        .description("Calls to template-ms in flight")
+                        .register(registry);
+                Gauge.builder("templatems.client.connections.pending", templateMsConnectionLimiter,
+                                TemplateMsConnectionLimiter::getPendingRequests)
+                        .description("Calls waiting for a free connection slot")
+                        .register(registry);
+                Gauge.builder("templatems.client.connections.max", templateMsConnectionLimiter,
+                                TemplateMsConnectionLimiter::getMaxConnections)
+                        .description("Maximum concurrent calls to template-ms")
+                        .register(registry);
+            };
+        }
+
+        @Bean
+        public MeterBinder templateMsAsyncMetrics(TemplateMsAsyncClient templateMsAsyncClient) {
+            return registry -> {
+                Gauge.builder("templatems.client.async.active", templateMsAsyncClient, TemplateMsAsyncClient::getActiveCalls)
+                        .description("Async calls to template-ms running")
+                        .register(registry);
+                Gauge.builder("templatems.client.async.queued", templateMsAsyncClient, TemplateMsAsyncClient::getQueuedCalls)
+                        .description("Async calls waiting for a concurrency slot")
+                        .register(registry);
+            };
+        }
+    }
 }
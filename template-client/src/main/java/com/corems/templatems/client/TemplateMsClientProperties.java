@@ -0,0 +1,166 @@
+package com.corems.templatems.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "templatems")
+public class TemplateMsClientProperties {
+
+    private final Http http = new Http();
+
+    private final Async async = new Async();
+
+    private final LocalRender localRender = new LocalRender();
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public LocalRender getLocalRender() {
+        return localRender;
+    }
+
+    public static class Http {
+
+        /**
+         * Preferred protocol version. HTTP/2 multiplexes concurrent calls over one connection and falls back
+         * to pooled keep-alive HTTP/1.1 connections when the server does not support it.
+         */
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Time to wait for the response headers of a call.
+         */
+        private Duration readTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Maximum number of concurrent calls to template-ms; further calls wait up to {@code acquireTimeout}
+         * and then fail instead of piling up behind a slow service.
+         */
+        private int maxConnections = 200;
+
+        private Duration acquireTimeout = Duration.ofSeconds(1);
+
+        /**
+         * Ask for gzip-compressed responses.
+         */
+        private boolean compression = true;
+
+        public HttpClient.Version getVersion() {
+            return version;
+        }
+
+        public void setVersion(HttpClient.Version version) {
+            this.version = version;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getAcquireTimeout() {
+            return acquireTimeout;
+        }
+
+        public void setAcquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+        }
+
+        public boolean isCompression() {
+            return compression;
+        }
+
+        public void setCompression(boolean compression) {
+            this.compression = compression;
+        }
+    }
+
+    public static class Async {
+
+        /**
+         * Maximum number of async calls running at once; defaults to {@code http.max-connections} so queued
+         * calls wait in the async client instead of timing out on a connection slot.
+         */
+        private Integer maxConcurrency;
+
+        public Integer getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(Integer maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+    }
+
+    public static class LocalRender {
+
+        /**
+         * Fetch templates once and render them in this process instead of calling template-ms per render.
+         * Renders that cannot be done locally fall back to the remote render endpoint.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Age after which a cached template is re-fetched in the background; the cached copy keeps
+         * serving renders until the fresh one arrives.
+         */
+        private Duration revalidateAfter = Duration.ofSeconds(30);
+
+        /**
+         * Maximum number of templates (including partials) kept in memory.
+         */
+        private long maxEntries = 1_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getRevalidateAfter() {
+            return revalidateAfter;
+        }
+
+        public void setRevalidateAfter(Duration revalidateAfter) {
+            this.revalidateAfter = revalidateAfter;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.corems.templatems.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipResponseInterceptorTest {
+
+    private final GzipResponseInterceptor interceptor = new GzipResponseInterceptor();
+
+    @Test
+    void intercept_ShouldAskForGzipAndInflateTheBody() throws IOException {
+        MockClientHttpRequest request = request(HttpMethod.GET);
+        MockClientHttpResponse served = gzipResponse(gzip("{\"html\":\"Hello\"}"), HttpStatus.OK);
+
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0], (req, body) -> served);
+
+        assertThat(request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)).isEqualTo("gzip");
+        assertThat(new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"html\":\"Hello\"}");
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH)).isFalse();
+    }
+
+    @Test
+    void intercept_ShouldKeepAnAcceptEncodingSetByTheCaller() throws IOException {
+        MockClientHttpRequest request = request(HttpMethod.GET);
+        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "identity");
+
+        interceptor.intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+
+        assertThat(request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)).isEqualTo("identity");
+    }
+
+    @Test
+    void intercept_ShouldNotInflateBodilessResponses() throws IOException {
+        MockClientHttpResponse notModified = gzipResponse(new byte[0], HttpStatus.NOT_MODIFIED);
+        MockClientHttpResponse noContent = gzipResponse(new byte[0], HttpStatus.NO_CONTENT);
+        MockClientHttpResponse head = gzipResponse(new byte[0], HttpStatus.OK);
+        head.getHeaders().setContentLength(128);
+
+        assertThat(interceptor.intercept(request(HttpMethod.GET), new byte[0], (req, body) -> notModified)).isSameAs(notModified);
+        assertThat(interceptor.intercept(request(HttpMethod.GET), new byte[0], (req, body) -> noContent)).isSameAs(noContent);
+        assertThat(interceptor.intercept(request(HttpMethod.HEAD), new byte[0], (req, body) -> head)).isSameAs(head);
+    }
+
+    @Test
+    void intercept_ShouldReadAnEmptyGzipBodyAsEmpty() throws IOException {
+        MockClientHttpResponse empty = gzipResponse(new byte[0], HttpStatus.OK);
+        MockClientHttpResponse emptyChunked = gzipResponse(new byte[0], HttpStatus.OK);
+        empty.getHeaders().setContentLength(0);
+
+        assertThat(interceptor.intercept(request(HttpMethod.GET), new byte[0], (req, body) -> empty)).isSameAs(empty);
+        ClientHttpResponse response = interceptor.intercept(request(HttpMethod.GET), new byte[0], (req, body) -> emptyChunked);
+        assertThat(response.getBody().readAllBytes()).isEmpty();
+    }
+
+    private static MockClientHttpRequest request(HttpMethod method) {
+        return new MockClientHttpRequest(method, URI.create("http://template-ms/api/templates/welcome/fetch"));
+    }
+
+    private static MockClientHttpResponse gzipResponse(byte[] body, HttpStatus status) {
+        MockClientHttpResponse response = new MockClientHttpResponse(body, status);
+        response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response;
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
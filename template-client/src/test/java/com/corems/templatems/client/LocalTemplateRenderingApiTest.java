@@ -0,0 +1,177 @@
+package com.corems.templatems.client;
+
+import com.corems.templatems.ApiClient;
+import com.corems.templatems.api.model.RenderTemplateRequest;
+import com.corems.templatems.api.model.RenderTemplateResponse;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.jknack.handlebars.Handlebars;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class LocalTemplateRenderingApiTest {
+
+    private static final String BASE_PATH = "http://template-ms";
+
+    private MockRestServiceServer server;
+    private LocalTemplateRenderingApi api;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = ApiClient.buildRestClientBuilder();
+        server = MockRestServiceServer.bindTo(builder).build();
+        ApiClient apiClient = new ApiClient(builder.build());
+        apiClient.setBasePath(BASE_PATH);
+        api = new LocalTemplateRenderingApi(apiClient, new TemplateMsClientProperties.LocalRender());
+    }
+
+    @Test
+    void renderTemplate_ShouldFetchOnceAndRenderLocally() {
+        expectFetch("welcome", "en", template("welcome", "en", "Hello {{name}}", "{}"));
+
+        RenderTemplateResponse first = render("welcome", "en", Map.of("name", "Ada"));
+        RenderTemplateResponse second = render("welcome", "en", Map.of("name", "Grace"));
+
+        assertThat(first.getHtml()).isEqualTo("Hello Ada");
+        assertThat(first.getRevision()).isEqualTo(1);
+        assertThat(second.getHtml()).isEqualTo("Hello Grace");
+        server.verify();
+    }
+
+    @Test
+    void renderTemplate_ShouldResolvePartialsInRenderLanguageThenDefault() {
+        expectFetch("order", "de", template("order", "de", "Bestellung {{id}}. {{> footer}}", "{}"));
+        server.expect(requestTo(BASE_PATH + "/api/templates/footer/fetch?language=de"))
+            .andRespond(withStatus(HttpStatus.NOT_FOUND));
+        expectFetch("footer", null, template("footer", "en", "Bye", "{}"));
+
+        RenderTemplateResponse response = render("order", "de", Map.of("id", 7));
+
+        assertThat(response.getHtml()).isEqualTo("Bestellung 7. Bye");
+        server.verify();
+    }
+
+    @Test
+    void renderTemplate_ShouldIgnorePrefixSuffixAndCharsetOnPartialLoader() {
+        Handlebars handlebars = (Handlebars) ReflectionTestUtils.getField(api, "handlebars");
+        handlebars.getLoader().setPrefix("/templates");
+        handlebars.getLoader().setSuffix(".hbs");
+        handlebars.setCharset(StandardCharsets.ISO_8859_1);
+        expectFetch("order", "en", template("order", "en", "Order {{id}}. {{> footer}}", "{}"));
+        expectFetch("footer", "en", template("footer", "en", "Bye", "{}"));
+
+        assertThat(render("order", "en", Map.of("id", 7)).getHtml()).isEqualTo("Order 7. Bye");
+        assertThat(handlebars.getLoader().resolve("/footer")).isEqualTo("footer");
+        server.verify();
+    }
+
+    @Test
+    void renderTemplate_ShouldRenderRemotelyWhenParamsFailTheSchema() {
+        expectFetch("welcome", "en", template("welcome", "en", "Hello {{name}}",
+            "{\"name\": {\"required\": true, \"type\": \"string\"}}"));
+        server.expect(requestTo(BASE_PATH + "/api/templates/welcome/render?language=en"))
+            .andExpect(method(HttpMethod.POST))
+            .andRespond(withSuccess("{\"html\": \"remote\"}", MediaType.APPLICATION_JSON));
+
+        assertThat(render("welcome", "en", Map.of()).getHtml()).isEqualTo("remote");
+        server.verify();
+    }
+
+    @Test
+    void renderTemplate_ShouldRenderRemotelyWhenParamsReferenceTemplates() {
+        server.expect(requestTo(BASE_PATH + "/api/templates/welcome/render?language=en"))
+            .andExpect(method(HttpMethod.POST))
+            .andRespond(withSuccess("{\"html\": \"remote\"}", MediaType.APPLICATION_JSON));
+
+        assertThat(render("welcome", "en", Map.of("template_footer", "x")).getHtml()).isEqualTo("remote");
+        server.verify();
+    }
+
+    @Test
+    void renderTemplate_ShouldRevalidateWithETagAndKeepTemplateWhenNotModified() {
+        api = revalidatingApi();
+        expectFetch("welcome", "en", template("welcome", "en", "Hello {{name}}", "{}"));
+        server.expect(ExpectedCount.manyTimes(), requestTo(BASE_PATH + "/api/templates/welcome/fetch?language=en"))
+            .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"welcome-1\""))
+            .andRespond(withStatus(HttpStatus.NOT_MODIFIED).header("ETag", "\"welcome-1\""));
+
+        assertThat(render("welcome", "en", Map.of("name", "Ada")).getHtml()).isEqualTo("Hello Ada");
+        Object cached = cachedTemplate("welcome:en");
+
+        await().atMost(Duration.ofSeconds(5)).ignoreExceptions().untilAsserted(() -> {
+            assertThat(render("welcome", "en", Map.of("name", "Grace")).getHtml()).isEqualTo("Hello Grace");
+            server.verify();
+        });
+        assertThat(cachedTemplate("welcome:en")).isSameAs(cached);
+    }
+
+    @Test
+    void renderTemplate_ShouldReplaceTemplateWhenRevalidationReturnsNewVersion() {
+        api = revalidatingApi();
+        expectFetch("welcome", "en", template("welcome", "en", "Hello {{name}}", "{}"));
+        server.expect(requestTo(BASE_PATH + "/api/templates/welcome/fetch?language=en"))
+            .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"welcome-1\""))
+            .andRespond(withSuccess(template("welcome", "en", "Hi {{name}}", "{}"), MediaType.APPLICATION_JSON)
+                .header("ETag", "\"welcome-2\""));
+        server.expect(ExpectedCount.manyTimes(), requestTo(BASE_PATH + "/api/templates/welcome/fetch?language=en"))
+            .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"welcome-2\""))
+            .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        assertThat(render("welcome", "en", Map.of("name", "Ada")).getHtml()).isEqualTo("Hello Ada");
+
+        await().atMost(Duration.ofSeconds(5)).ignoreExceptions().untilAsserted(() -> {
+            assertThat(render("welcome", "en", Map.of("name", "Ada")).getHtml()).isEqualTo("Hi Ada");
+            server.verify();
+        });
+    }
+
+    private LocalTemplateRenderingApi revalidatingApi() {
+        TemplateMsClientProperties.LocalRender properties = new TemplateMsClientProperties.LocalRender();
+        properties.setRevalidateAfter(Duration.ofMillis(1));
+        return new LocalTemplateRenderingApi(api.getApiClient(), properties);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object cachedTemplate(String key) {
+        LoadingCache<String, Optional<?>> templates = (LoadingCache<String, Optional<?>>) ReflectionTestUtils.getField(api, "templates");
+        return templates.getIfPresent(key).orElseThrow();
+    }
+
+    private RenderTemplateResponse render(String templateId, String language, Map<String, Object> params) {
+        return api.renderTemplate(templateId, new RenderTemplateRequest().params(params), language, null);
+    }
+
+    private void expectFetch(String templateId, String language, String body) {
+        String query = language != null ? "?language=" + language : "";
+        server.expect(requestTo(BASE_PATH + "/api/templates/" + templateId + "/fetch" + query))
+            .andExpect(method(HttpMethod.GET))
+            .andRespond(withSuccess(body, MediaType.APPLICATION_JSON).header("ETag", "\"" + templateId + "-1\""));
+    }
+
+    static String template(String templateId, String language, String content, String paramSchema) {
+        return """
+            {"templateId": "%s", "language": "%s", "content": "%s", "revision": 1, "category": "EMAIL",
+             "contentHash": "%s", "paramSchema": %s}
+            """.formatted(templateId, language, content, Integer.toHexString(content.hashCode()), paramSchema);
+    }
+}
@@ -0,0 +1,109 @@
+package com.corems.templatems.client;
+
+import com.corems.templatems.api.model.RenderTemplateRequest;
+import com.corems.templatems.api.model.RenderTemplateResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TemplateMsAsyncClientTest {
+
+    private final TemplateRenderingApi renderingApi = mock(TemplateRenderingApi.class);
+    private final TemplateManagementApi managementApi = mock(TemplateManagementApi.class);
+    private TemplateMsAsyncClient client;
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void renderTemplate_ShouldRunAtMostMaxConcurrencyCallsAndQueueTheRest() throws Exception {
+        client = new TemplateMsAsyncClient(renderingApi, managementApi, 2, null);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(renderingApi.renderTemplate(eq("welcome"), any(), eq("en"), eq(null))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                release.await();
+                return new RenderTemplateResponse().html("Hello");
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+
+        List<CompletableFuture<RenderTemplateResponse>> calls = IntStream.range(0, 5)
+            .mapToObj(i -> client.renderTemplate("welcome", new RenderTemplateRequest(), "en"))
+            .toList();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> client.getActiveCalls() == 2 && client.getQueuedCalls() == 3);
+        assertThat(calls).noneMatch(CompletableFuture::isDone);
+
+        release.countDown();
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(calls).allSatisfy(call -> assertThat(call.join().getHtml()).isEqualTo("Hello"));
+        assertThat(maxRunning).hasValue(2);
+        assertThat(client.getActiveCalls()).isZero();
+        assertThat(client.getQueuedCalls()).isZero();
+    }
+
+    @Test
+    void renderTemplate_ShouldCompleteExceptionallyWithTheApiException() {
+        client = new TemplateMsAsyncClient(renderingApi, managementApi, 1, null);
+        HttpClientErrorException notFound = HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+        when(renderingApi.renderTemplate(eq("missing"), any(), eq("en"), eq(null))).thenThrow(notFound);
+        when(renderingApi.renderTemplate(eq("welcome"), any(), eq("en"), eq(null))).thenReturn(new RenderTemplateResponse().html("Hello"));
+
+        CompletableFuture<RenderTemplateResponse> failed = client.renderTemplate("missing", new RenderTemplateRequest(), "en");
+
+        assertThat(failed).failsWithin(Duration.ofSeconds(5))
+            .withThrowableOfType(ExecutionException.class)
+            .withCause(notFound);
+        // The permit of the failed call is released, so the next call still runs.
+        assertThat(client.renderTemplate("welcome", new RenderTemplateRequest(), "en"))
+            .succeedsWithin(Duration.ofSeconds(5))
+            .extracting(RenderTemplateResponse::getHtml).isEqualTo("Hello");
+        assertThat(client.getActiveCalls()).isZero();
+    }
+
+    @Test
+    void management_ShouldApplyTaskDecoratorFromTheCallingThread() throws Exception {
+        ThreadLocal<String> context = new ThreadLocal<>();
+        client = new TemplateMsAsyncClient(renderingApi, managementApi, 1, task -> {
+            String captured = context.get();
+            return () -> {
+                context.set(captured);
+                try {
+                    task.run();
+                } finally {
+                    context.remove();
+                }
+            };
+        });
+
+        context.set("tenant-a");
+        try {
+            assertThat(client.management(api -> context.get()).get(5, TimeUnit.SECONDS)).isEqualTo("tenant-a");
+        } finally {
+            context.remove();
+        }
+    }
+}
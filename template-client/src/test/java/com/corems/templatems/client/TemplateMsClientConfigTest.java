@@ -0,0 +1,22 @@
+package com.corems.templatems.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TemplateMsClientConfigTest {
+
+    @Test
+    void templateRestClient_ShouldNotChangeTheSharedBuilder() {
+        RestClient.Builder shared = RestClient.builder();
+        TemplateMsClientProperties properties = new TemplateMsClientProperties();
+
+        new TemplateMsClientConfig().templateRestClient(shared, properties,
+            new TemplateMsConnectionLimiter(1, Duration.ofSeconds(1)));
+
+        shared.requestInterceptors(interceptors -> assertThat(interceptors).isEmpty());
+    }
+}
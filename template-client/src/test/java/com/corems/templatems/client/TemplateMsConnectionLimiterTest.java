@@ -0,0 +1,86 @@
+package com.corems.templatems.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class TemplateMsConnectionLimiterTest {
+
+    private static final MockClientHttpRequest REQUEST =
+        new MockClientHttpRequest(HttpMethod.GET, URI.create("http://template-ms/api/templates/welcome/fetch"));
+
+    @Test
+    void intercept_ShouldHoldPermitUntilResponseIsClosed() throws IOException {
+        TemplateMsConnectionLimiter limiter = new TemplateMsConnectionLimiter(2, Duration.ofMillis(50));
+
+        ClientHttpResponse first = call(limiter);
+        ClientHttpResponse second = call(limiter);
+        assertThat(limiter.getActiveConnections()).isEqualTo(2);
+
+        first.close();
+        first.close();
+        assertThat(limiter.getActiveConnections()).isEqualTo(1);
+        second.close();
+        assertThat(limiter.getActiveConnections()).isZero();
+    }
+
+    @Test
+    void intercept_ShouldFailFastWhenNoPermitFreesUp() throws IOException {
+        TemplateMsConnectionLimiter limiter = new TemplateMsConnectionLimiter(1, Duration.ofMillis(20));
+        call(limiter);
+
+        assertThatThrownBy(() -> call(limiter))
+            .isInstanceOf(ResourceAccessException.class)
+            .hasMessageContaining("No connection to template-ms available within 20ms");
+        assertThat(limiter.getPendingRequests()).isZero();
+        assertThat(limiter.getActiveConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void intercept_ShouldHandOverPermitToWaitingCall() throws Exception {
+        TemplateMsConnectionLimiter limiter = new TemplateMsConnectionLimiter(1, Duration.ofSeconds(5));
+        ClientHttpResponse first = call(limiter);
+
+        CompletableFuture<ClientHttpResponse> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return call(limiter);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await().atMost(5, TimeUnit.SECONDS).until(() -> limiter.getPendingRequests() == 1);
+
+        first.close();
+        waiting.get(5, TimeUnit.SECONDS).close();
+        assertThat(limiter.getPendingRequests()).isZero();
+        assertThat(limiter.getActiveConnections()).isZero();
+    }
+
+    @Test
+    void intercept_ShouldReleasePermitWhenExecutionFails() {
+        TemplateMsConnectionLimiter limiter = new TemplateMsConnectionLimiter(1, Duration.ofMillis(20));
+
+        assertThatThrownBy(() -> limiter.intercept(REQUEST, new byte[0], (request, body) -> {
+            throw new IOException("Connection refused");
+        })).isInstanceOf(IOException.class);
+        assertThat(limiter.getActiveConnections()).isZero();
+    }
+
+    private static ClientHttpResponse call(TemplateMsConnectionLimiter limiter) throws IOException {
+        return limiter.intercept(REQUEST, new byte[0], (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+    }
+}
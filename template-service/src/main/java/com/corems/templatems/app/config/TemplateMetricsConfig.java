@@ -0,0 +1,41 @@
+package com.corems.templatems.app.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Configuration
+public class TemplateMetricsConfig {
+
+    static final String OVERFLOW_TEMPLATE_ID = "other";
+
+    /**
+     * Keeps the first {@code maxTemplateIds} template ids as tag values and folds the rest into
+     * {@code templateId=other}, so per-template meters stay bounded and totals stay complete.
+     */
+    @Bean
+    public MeterFilter templateIdTagLimit(TemplateServiceProperties properties) {
+        int maxTemplateIds = properties.getMetrics().getMaxTemplateIds();
+        Set<String> templateIds = ConcurrentHashMap.newKeySet();
+
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                String templateId = id.getTag("templateId");
+                if (templateId == null || !id.getName().startsWith("templates.") || templateIds.contains(templateId)) {
+                    return id;
+                }
+                if (templateIds.size() < maxTemplateIds) {
+                    templateIds.add(templateId);
+                    return id;
+                }
+                return id.replaceTags(Tags.of(id.getTags()).and("templateId", OVERFLOW_TEMPLATE_ID));
+            }
+        };
+    }
+}
@@ -0,0 +1,255 @@
+package com.corems.templatems.app.config;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "template-service")
+public class TemplateServiceProperties {
+
+    private final Cache cache = new Cache();
+
+    private final Render render = new Render();
+
+    private final Fetch fetch = new Fetch();
+
+    private final Bulk bulk = new Bulk();
+
+    private final Metrics metrics = new Metrics();
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        private final SnapshotCache snapshots = new SnapshotCache();
+
+        private final CompiledCache compiled = new CompiledCache();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        private final Warmup warmup = new Warmup();
+
+        private final OutputCache output = new OutputCache();
+
+        private final RevisionCache revisions = new RevisionCache();
+    }
+
+    @Getter
+    @Setter
+    public static class SnapshotCache {
+
+        /**
+         * Maximum number of current templates kept in memory, each with its full content. Raise it to the
+         * catalog size to serve every template from memory; warm-up beyond it loads templates only to evict them.
+         * Also bounds the remembered misses: language variants that do not exist and keys without a live template.
+         */
+        private long maxEntries = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class CompiledCache {
+
+        /**
+         * Maximum number of compiled templates kept in memory. Ignored when {@code maxWeight} is set.
+         */
+        private long maxEntries = 10_000;
+
+        /**
+         * Maximum total weight (template source length in characters) of compiled templates.
+         * Zero disables weight-based eviction in favour of {@code maxEntries}.
+         */
+        private long maxWeight = 0;
+
+        /**
+         * Optional idle time after which a compiled template is dropped.
+         */
+        private Duration expireAfterAccess;
+    }
+
+    @Getter
+    @Setter
+    public static class Invalidation {
+
+        /**
+         * How cache invalidations reach other replicas: {@code postgres} (default) broadcasts through
+         * LISTEN/NOTIFY, {@code local} only clears this instance.
+         */
+        private InvalidationMode mode = InvalidationMode.POSTGRES;
+
+        private String channel = "template_invalidation";
+
+        private Duration pollTimeout = Duration.ofSeconds(1);
+
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Warmup {
+
+        /**
+         * Load and compile templates at startup, before the instance reports ready.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Categories to warm up; empty means all.
+         */
+        private List<TemplateCategory> categories = new ArrayList<>();
+
+        /**
+         * Languages to warm up; empty means all.
+         */
+        private List<String> languages = new ArrayList<>();
+
+        /**
+         * Number of threads compiling templates in parallel.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Getter
+    @Setter
+    public static class OutputCache {
+
+        /**
+         * Cache rendered output of JSON renders by template version and params. Only worth it for templates
+         * rendered many times with the same params; output must not depend on anything but the params.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Templates whose output is cached; empty means all.
+         */
+        private List<String> templateIds = new ArrayList<>();
+
+        /**
+         * Categories whose output is cached; empty means all.
+         */
+        private List<TemplateCategory> categories = new ArrayList<>();
+
+        /**
+         * Maximum number of rendered outputs kept in memory. Ignored when {@code maxWeight} is set.
+         */
+        private long maxEntries = 10_000;
+
+        /**
+         * Maximum total length in characters of rendered outputs. Zero disables weight-based eviction
+         * in favour of {@code maxEntries}.
+         */
+        private long maxWeight = 0;
+
+        /**
+         * Time after which a rendered output is dropped even if its template did not change.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class RevisionCache {
+
+        /**
+         * Maximum number of pinned revisions kept in memory. Revisions never change, so entries are only
+         * dropped by size.
+         */
+        private long maxEntries = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Render {
+
+        /**
+         * How templates are executed. {@code bytecode} compiles each template to a generated class; templates
+         * using constructs it does not support (helpers, block params, partial arguments) stay interpreted.
+         */
+        private RenderBackend backend = RenderBackend.INTERPRETED;
+
+        private final Batch batch = new Batch();
+
+        private final Stream stream = new Stream();
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /**
+         * Maximum number of batch items rendered concurrently across all requests.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Getter
+    @Setter
+    public static class Stream {
+
+        /**
+         * Maximum number of NDJSON records read ahead and rendering per streaming request;
+         * bounds the memory held per stream regardless of its size.
+         */
+        private int window = 64;
+    }
+
+    @Getter
+    @Setter
+    public static class Fetch {
+
+        /**
+         * How long clients may reuse a fetched template or its metadata without revalidating. Zero makes
+         * them revalidate on every use, which costs a {@code 304} answered from memory while unchanged.
+         */
+        private Duration cacheMaxAge = Duration.ZERO;
+    }
+
+    @Getter
+    @Setter
+    public static class Bulk {
+
+        /**
+         * Number of items validated and compiled at once, across all concurrent bulk upserts.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Rows written per upsert statement.
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * Largest number of changed templates invalidated one by one; larger imports clear the caches of every
+         * replica once instead of sending a notification per template.
+         */
+        private int maxInvalidations = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+
+        /**
+         * Maximum number of distinct {@code templateId} tag values on render meters; further templates
+         * are reported as {@code templateId=other}.
+         */
+        private int maxTemplateIds = 200;
+    }
+
+    public enum InvalidationMode {
+        LOCAL,
+        POSTGRES
+    }
+
+    public enum RenderBackend {
+        INTERPRETED,
+        BYTECODE
+    }
+}
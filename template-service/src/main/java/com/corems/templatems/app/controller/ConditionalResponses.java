@@ -0,0 +1,54 @@
+package com.corems.templatems.app.controller;
+
+import com.corems.templatems.app.service.TemplateSnapshot;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * ETag and {@code Cache-Control} handling shared by the template fetch endpoints.
+ */
+final class ConditionalResponses {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Answers a matching {@code If-None-Match} with {@code 304} before the body is mapped, so revalidating an
+     * unchanged template costs a snapshot lookup. A pinned revision never changes, so clients may keep it indefinitely.
+     */
+    static <T> ResponseEntity<T> conditional(TemplateSnapshot snapshot, Optional<String> ifNoneMatch, Duration maxAge,
+                                             Function<TemplateSnapshot, T> body) {
+        String etag = snapshot.etag();
+        CacheControl cacheControl = snapshot.pinned() ? IMMUTABLE : cacheControl(maxAge);
+        if (ifNoneMatch.filter(header -> matches(header, etag)).isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.apply(snapshot));
+    }
+
+    /**
+     * Weak comparison, as {@code If-None-Match} requires, so {@code W/"x"} (added by compressing proxies) matches {@code "x"}.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CacheControl cacheControl(Duration maxAge) {
+        CacheControl cacheControl = maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge).mustRevalidate();
+        // Responses require authentication, so shared caches must not store them.
+        return cacheControl.cachePrivate();
+    }
+}
@@ -3,12 +3,20 @@ package com.corems.templatems.app.controller;
 import com.corems.common.security.CoreMsRoles;
 import com.corems.common.security.RequireRoles;
 import com.corems.templatems.api.TemplateManagementApi;
+import com.corems.templatems.api.model.BulkUpsertTemplatesRequest;
+import com.corems.templatems.api.model.BulkUpsertTemplatesResponse;
 import com.corems.templatems.api.model.CreateTemplateRequest;
+import com.corems.templatems.api.model.SetTemplateRevisionRequest;
 import com.corems.templatems.api.model.SuccessfulResponse;
 import com.corems.templatems.api.model.TemplatePagedResponse;
 import com.corems.templatems.api.model.TemplateResponse;
+import com.corems.templatems.api.model.TemplateRevisionResponse;
 import com.corems.templatems.api.model.UpdateTemplateRequest;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.service.TemplateBulkUpsertService;
 import com.corems.templatems.app.service.TemplateManagementService;
+import com.corems.templatems.app.service.TemplateRenderingService;
+import com.corems.templatems.app.service.TemplateSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +32,9 @@ import java.util.UUID;
 public class TemplateManagementController implements TemplateManagementApi {
 
     private final TemplateManagementService templateManagementService;
+    private final TemplateBulkUpsertService templateBulkUpsertService;
+    private final TemplateRenderingService templateRenderingService;
+    private final TemplateServiceProperties properties;
 
     @Override
     public ResponseEntity<TemplateResponse> createTemplate(CreateTemplateRequest createTemplateRequest) {
@@ -38,14 +49,39 @@ public class TemplateManagementController implements TemplateManagementApi {
     }
 
     @Override
-    public ResponseEntity<TemplateResponse> getTemplate(UUID id) {
-        TemplateResponse response = templateManagementService.getTemplateById(id);
+    public ResponseEntity<TemplateResponse> getTemplate(UUID id, Optional<String> ifNoneMatch) {
+        TemplateSnapshot snapshot = templateManagementService.getTemplateById(id);
+        return ConditionalResponses.conditional(snapshot, ifNoneMatch, properties.getFetch().getCacheMaxAge(),
+            templateRenderingService::toTemplateResponse);
+    }
+
+    @Override
+    public ResponseEntity<TemplatePagedResponse> listTemplates(Optional<Integer> page, Optional<Integer> pageSize, Optional<String> sort, Optional<String> search, Optional<List<String>> filter, Optional<String> view) {
+        TemplatePagedResponse response = templateManagementService.listTemplates(page, pageSize, sort, search, filter, view);
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<List<TemplateRevisionResponse>> listTemplateRevisions(UUID id) {
+        List<TemplateRevisionResponse> response = templateManagementService.listTemplateRevisions(id);
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<TemplatePagedResponse> scrollTemplates(Optional<String> cursor, Optional<Integer> pageSize, Optional<String> category, Optional<String> language, Optional<String> view, Optional<Boolean> includeTotal) {
+        TemplatePagedResponse response = templateManagementService.scrollTemplates(cursor, pageSize, category, language, view, includeTotal);
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<TemplateResponse> setTemplateRevision(UUID id, SetTemplateRevisionRequest setTemplateRevisionRequest) {
+        TemplateResponse response = templateManagementService.setTemplateRevision(id, setTemplateRevisionRequest);
         return ResponseEntity.ok(response);
     }
 
     @Override
-    public ResponseEntity<TemplatePagedResponse> listTemplates(Optional<Integer> page, Optional<Integer> pageSize, Optional<String> sort, Optional<String> search, Optional<List<String>> filter) {
-        TemplatePagedResponse response = templateManagementService.listTemplates(page, pageSize, sort, search, filter);
+    public ResponseEntity<BulkUpsertTemplatesResponse> upsertTemplates(BulkUpsertTemplatesRequest bulkUpsertTemplatesRequest) {
+        BulkUpsertTemplatesResponse response = templateBulkUpsertService.upsertTemplates(bulkUpsertTemplatesRequest);
         return ResponseEntity.ok(response);
     }
 
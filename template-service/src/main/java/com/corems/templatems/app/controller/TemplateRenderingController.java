@@ -1,15 +1,27 @@
 package com.corems.templatems.app.controller;
 
 import com.corems.templatems.api.TemplateRenderingApi;
+import com.corems.templatems.api.model.BatchRenderRequest;
+import com.corems.templatems.api.model.BatchRenderResponse;
 import com.corems.templatems.api.model.RenderTemplateRequest;
 import com.corems.templatems.api.model.RenderTemplateResponse;
 import com.corems.templatems.api.model.TemplateMetadataResponse;
 import com.corems.templatems.api.model.TemplateResponse;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.service.TemplateBatchRenderingService;
 import com.corems.templatems.app.service.TemplateRenderingService;
+import com.corems.templatems.app.service.TemplateSnapshot;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 @RestController
@@ -17,22 +29,76 @@ import java.util.Optional;
 public class TemplateRenderingController implements TemplateRenderingApi {
 
     private final TemplateRenderingService templateRenderingService;
+    private final TemplateBatchRenderingService templateBatchRenderingService;
+    private final TemplateServiceProperties properties;
+    private final NativeWebRequest webRequest;
 
     @Override
-    public ResponseEntity<TemplateResponse> getTemplateByTemplateId(String templateId, Optional<String> language) {
-        TemplateResponse response = templateRenderingService.getTemplateByTemplateId(templateId, language.orElse(null));
-        return ResponseEntity.ok(response);
+    public Optional<NativeWebRequest> getRequest() {
+        return Optional.of(webRequest);
+    }
+
+    @Override
+    public ResponseEntity<TemplateResponse> getTemplateByTemplateId(String templateId, Optional<String> language,
+                                                                    Optional<Integer> revision, Optional<String> ifNoneMatch) {
+        TemplateSnapshot snapshot = templateRenderingService.getTemplate(templateId, language.orElse(null), revision.orElse(null));
+        return ConditionalResponses.conditional(snapshot, ifNoneMatch, properties.getFetch().getCacheMaxAge(),
+            templateRenderingService::toTemplateResponse);
+    }
+
+    @Override
+    public ResponseEntity<TemplateMetadataResponse> getTemplateMetadata(String templateId, Optional<String> language,
+                                                                        Optional<Integer> revision, Optional<String> ifNoneMatch) {
+        TemplateSnapshot snapshot = templateRenderingService.getTemplate(templateId, language.orElse(null), revision.orElse(null));
+        return ConditionalResponses.conditional(snapshot, ifNoneMatch, properties.getFetch().getCacheMaxAge(),
+            templateRenderingService::toTemplateMetadata);
     }
 
     @Override
-    public ResponseEntity<TemplateMetadataResponse> getTemplateMetadata(String templateId, Optional<String> language) {
-        TemplateMetadataResponse response = templateRenderingService.getTemplateMetadata(templateId, language.orElse(null));
+    public ResponseEntity<RenderTemplateResponse> renderTemplate(String templateId, RenderTemplateRequest renderTemplateRequest,
+                                                                 Optional<String> language, Optional<Integer> revision) {
+        RenderTemplateResponse response = templateRenderingService.renderTemplate(templateId, language.orElse(null),
+            revision.orElse(null), renderTemplateRequest);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Renders into the servlet response writer, so the document is never held as a string; no response entity is
+     * returned. The writer is only taken once lookup and validation have passed, so their errors stay JSON.
+     */
     @Override
-    public ResponseEntity<RenderTemplateResponse> renderTemplate(String templateId, RenderTemplateRequest renderTemplateRequest, Optional<String> language) {
-        RenderTemplateResponse response = templateRenderingService.renderTemplate(templateId, language.orElse(null), renderTemplateRequest);
+    public ResponseEntity<String> renderTemplateHtml(String templateId, RenderTemplateRequest renderTemplateRequest,
+                                                     Optional<String> language, Optional<Integer> revision) {
+        HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+        templateRenderingService.renderTemplate(templateId, language.orElse(null), revision.orElse(null), renderTemplateRequest, () -> {
+            response.setContentType(MediaType.TEXT_HTML_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            return response.getWriter();
+        });
+        return null;
+    }
+
+    @Override
+    public ResponseEntity<BatchRenderResponse> renderTemplatesBatch(BatchRenderRequest batchRenderRequest) {
+        BatchRenderResponse response = templateBatchRenderingService.renderBatch(batchRenderRequest);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * The body is bound as a stream over the request, so records render while the rest is still arriving. Results
+     * are written straight to the response as they complete, so no response entity is returned.
+     */
+    @Override
+    public ResponseEntity<InputStreamResource> renderTemplateStream(String templateId, InputStreamResource body,
+                                                                    Optional<String> language, Optional<Integer> revision) {
+        HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try {
+            templateBatchRenderingService.renderStream(templateId, language.orElse(null), revision.orElse(null),
+                body.getInputStream(), response.getOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
 }
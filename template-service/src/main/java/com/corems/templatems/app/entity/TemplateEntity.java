@@ -11,6 +11,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -20,7 +21,11 @@ import lombok.Setter;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.UUID;
 
@@ -57,10 +62,22 @@ public class TemplateEntity {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
+    @Column(name = "content_length", nullable = false)
+    private Integer contentLength;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 50)
     private TemplateCategory category;
 
+    /**
+     * Number of the {@code template_revision} row this template currently points at.
+     */
+    @Column(nullable = false)
+    private Integer revision;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "param_schema", columnDefinition = "jsonb")
     private Map<String, Object> paramSchema;
@@ -81,6 +98,10 @@ public class TemplateEntity {
     @Builder.Default
     private Boolean isDeleted = false;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         if (uuid == null) {
@@ -92,10 +113,34 @@ public class TemplateEntity {
         if (updatedAt == null) {
             updatedAt = Instant.now();
         }
+        updateContentDigest();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = Instant.now();
+        updateContentDigest();
+    }
+
+    private void updateContentDigest() {
+        contentLength = contentLength(content);
+        contentHash = sha256(content);
+    }
+
+    /**
+     * Length in Unicode code points, the same count as Postgres {@code char_length}; a character outside the
+     * BMP is one code point but two Java chars.
+     */
+    public static int contentLength(String content) {
+        return content.codePointCount(0, content.length());
+    }
+
+    public static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -0,0 +1,125 @@
+package com.corems.templatems.app.entity;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One written state of a template. Rows are only ever inserted and numbered per {@code templateUuid}, so
+ * {@code (templateUuid, revision)} always resolves to the same content, even after a rename.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Immutable
+@Table(name = "template_revision")
+public class TemplateRevisionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "template_uuid", nullable = false)
+    private UUID templateUuid;
+
+    @Column(name = "template_id", nullable = false)
+    private String templateId;
+
+    @Column(nullable = false, length = 10)
+    private String language;
+
+    @Column(nullable = false)
+    private Integer revision;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "content_length", nullable = false)
+    private Integer contentLength;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private TemplateCategory category;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "param_schema", columnDefinition = "jsonb")
+    private Map<String, Object> paramSchema;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "created_by")
+    private UUID createdBy;
+
+    public static TemplateRevisionEntity of(TemplateEntity entity) {
+        return TemplateRevisionEntity.builder()
+                .templateUuid(entity.getUuid())
+                .templateId(entity.getTemplateId())
+                .language(entity.getLanguage())
+                .revision(entity.getRevision())
+                .name(entity.getName())
+                .description(entity.getDescription())
+                .content(entity.getContent())
+                .contentLength(entity.getContentLength())
+                .contentHash(entity.getContentHash())
+                .category(entity.getCategory())
+                .paramSchema(entity.getParamSchema())
+                .createdAt(entity.getUpdatedAt())
+                .createdBy(entity.getUpdatedBy())
+                .build();
+    }
+
+    /**
+     * Whether the template's current state is the one captured by this revision, so writing it again
+     * would add nothing.
+     */
+    public boolean matches(TemplateEntity entity) {
+        return Objects.equals(templateId, entity.getTemplateId())
+                && Objects.equals(language, entity.getLanguage())
+                && Objects.equals(name, entity.getName())
+                && Objects.equals(description, entity.getDescription())
+                && Objects.equals(content, entity.getContent())
+                && category == entity.getCategory()
+                && Objects.equals(paramSchema, entity.getParamSchema());
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+}
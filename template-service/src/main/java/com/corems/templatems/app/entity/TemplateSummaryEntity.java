@@ -0,0 +1,80 @@
+package com.corems.templatems.app.entity;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-only view of the {@code template} table without the {@code content} and {@code param_schema}
+ * columns, used by list pages so they never load template bodies.
+ */
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Immutable
+@Table(name = "template")
+public class TemplateSummaryEntity {
+
+    // Mapped like TemplateEntity's id so schema generation (tests) produces the same identity column.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID uuid;
+
+    @Column(name = "template_id", nullable = false)
+    private String templateId;
+
+    @Column(nullable = false, length = 10)
+    private String language;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private TemplateCategory category;
+
+    @Column(name = "content_length", nullable = false)
+    private Integer contentLength;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private Integer revision;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "created_by")
+    private UUID createdBy;
+
+    @Column(name = "updated_by")
+    private UUID updatedBy;
+
+    @Column(name = "is_deleted", nullable = false)
+    private Boolean isDeleted;
+}
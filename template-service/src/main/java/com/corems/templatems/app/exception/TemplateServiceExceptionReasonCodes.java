@@ -17,7 +17,11 @@ public enum TemplateServiceExceptionReasonCodes implements ExceptionReasonCodes
     INVALID_TEMPLATE_SYNTAX("template.invalid_syntax", HttpStatus.BAD_REQUEST, "Invalid template syntax"),
     TEMPLATE_COMPILATION_FAILED("template.compilation_failed", HttpStatus.BAD_REQUEST, "Template compilation failed"),
     TEMPLATE_RENDERING_FAILED("template.rendering_failed", HttpStatus.INTERNAL_SERVER_ERROR, "Template rendering failed"),
-    MISSING_REQUIRED_PARAMS("template.missing_params", HttpStatus.BAD_REQUEST, "Missing required parameters");
+    MISSING_REQUIRED_PARAMS("template.missing_params", HttpStatus.BAD_REQUEST, "Missing required parameters"),
+    INVALID_PARAMS("template.invalid_params", HttpStatus.BAD_REQUEST, "Parameters do not match the template schema"),
+    INVALID_PARAM_SCHEMA("template.invalid_param_schema", HttpStatus.BAD_REQUEST, "Invalid parameter schema"),
+    INVALID_CURSOR("template.invalid_cursor", HttpStatus.BAD_REQUEST, "Invalid pagination cursor"),
+    INVALID_FILTER("template.invalid_filter", HttpStatus.BAD_REQUEST, "Invalid filter value");
 
     private final String errorCode;
     private final HttpStatus httpStatus;
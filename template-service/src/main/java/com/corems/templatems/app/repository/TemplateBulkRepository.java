@@ -0,0 +1,151 @@
+package com.corems.templatems.app.repository;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Multi-row upserts for bulk imports. {@code TemplateEntity} ids are identity columns, so Hibernate cannot
+ * batch its inserts; one statement per chunk unnests column arrays instead and upserts on
+ * {@code uq_template_id_language}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TemplateBulkRepository {
+
+    /**
+     * Rows whose fields all match are left alone and not returned; deleted rows are restored. Every row written
+     * gets the next revision number of its uuid (1 for a new row) and a matching {@code template_revision} row.
+     * {@code xmax} is zero only for rows inserted by this statement.
+     */
+    private static final String UPSERT = """
+            WITH upserted AS (
+                INSERT INTO template AS t (template_id, language, name, description, content, content_length, content_hash,
+                                           category, param_schema, revision, created_at, updated_at, created_by, updated_by)
+                SELECT r.template_id, r.language, r.name, r.description, r.content, r.content_length, r.content_hash,
+                       r.category, CAST(r.param_schema AS JSONB), 1,
+                       CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), CAST(? AS UUID), CAST(? AS UUID)
+                FROM unnest(CAST(? AS VARCHAR[]), CAST(? AS VARCHAR[]), CAST(? AS VARCHAR[]), CAST(? AS TEXT[]),
+                            CAST(? AS TEXT[]), CAST(? AS INTEGER[]), CAST(? AS VARCHAR[]), CAST(? AS VARCHAR[]),
+                            CAST(? AS TEXT[]))
+                     AS r(template_id, language, name, description, content, content_length, content_hash, category, param_schema)
+                ON CONFLICT (template_id, language) DO UPDATE SET
+                    name = EXCLUDED.name,
+                    description = EXCLUDED.description,
+                    content = EXCLUDED.content,
+                    content_length = EXCLUDED.content_length,
+                    content_hash = EXCLUDED.content_hash,
+                    category = EXCLUDED.category,
+                    param_schema = EXCLUDED.param_schema,
+                    revision = (SELECT COALESCE(MAX(v.revision), 0) + 1 FROM template_revision v WHERE v.template_uuid = t.uuid),
+                    updated_at = EXCLUDED.updated_at,
+                    updated_by = EXCLUDED.updated_by,
+                    is_deleted = FALSE,
+                    version = t.version + 1
+                WHERE t.is_deleted
+                   OR (t.name, t.description, t.content_hash, t.category, t.param_schema)
+                      IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.description, EXCLUDED.content_hash, EXCLUDED.category, EXCLUDED.param_schema)
+                RETURNING t.*, t.xmax = 0 AS created
+            ), revisions AS (
+                INSERT INTO template_revision (template_uuid, template_id, language, revision, name, description, content,
+                                               content_length, content_hash, category, param_schema, created_at, created_by)
+                SELECT uuid, template_id, language, revision, name, description, content,
+                       content_length, content_hash, category, param_schema, updated_at, updated_by
+                FROM upserted
+            )
+            SELECT template_id, language, uuid, version, revision, created FROM upserted
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Upserts the rows in one statement and returns those that were created or changed. Keys must be
+     * distinct, since Postgres cannot update the same row twice in one statement.
+     */
+    public List<UpsertedTemplate> upsert(List<TemplateRow> rows, UUID userId, Instant now) {
+        return jdbcTemplate.query(connection -> prepare(connection, rows, userId, now), (rs, rowNum) -> new UpsertedTemplate(
+            rs.getString("template_id"),
+            rs.getString("language"),
+            rs.getObject("uuid", UUID.class),
+            rs.getLong("version"),
+            rs.getInt("revision"),
+            rs.getBoolean("created")));
+    }
+
+    private PreparedStatement prepare(Connection connection, List<TemplateRow> rows, UUID userId, Instant now) throws SQLException {
+        int size = rows.size();
+        String[] templateIds = new String[size];
+        String[] languages = new String[size];
+        String[] names = new String[size];
+        String[] descriptions = new String[size];
+        String[] contents = new String[size];
+        Integer[] contentLengths = new Integer[size];
+        String[] contentHashes = new String[size];
+        String[] categories = new String[size];
+        String[] paramSchemas = new String[size];
+        for (int i = 0; i < size; i++) {
+            TemplateRow row = rows.get(i);
+            templateIds[i] = row.templateId();
+            languages[i] = row.language();
+            names[i] = row.name();
+            descriptions[i] = row.description();
+            contents[i] = row.content();
+            contentLengths[i] = TemplateEntity.contentLength(row.content());
+            contentHashes[i] = row.contentHash();
+            categories[i] = row.category().name();
+            paramSchemas[i] = toJson(row.paramSchema());
+        }
+
+        PreparedStatement statement = connection.prepareStatement(UPSERT);
+        // The columns are TIMESTAMP holding UTC, which is how Hibernate reads them back as Instant. A TIMESTAMPTZ
+        // parameter would be shifted to the session time zone when assigned to them.
+        LocalDateTime utc = LocalDateTime.ofInstant(now, ZoneOffset.UTC);
+        statement.setObject(1, utc);
+        statement.setObject(2, utc);
+        statement.setObject(3, userId);
+        statement.setObject(4, userId);
+        statement.setArray(5, connection.createArrayOf("varchar", templateIds));
+        statement.setArray(6, connection.createArrayOf("varchar", languages));
+        statement.setArray(7, connection.createArrayOf("varchar", names));
+        statement.setArray(8, connection.createArrayOf("text", descriptions));
+        statement.setArray(9, connection.createArrayOf("text", contents));
+        statement.setArray(10, connection.createArrayOf("int4", contentLengths));
+        statement.setArray(11, connection.createArrayOf("varchar", contentHashes));
+        statement.setArray(12, connection.createArrayOf("varchar", categories));
+        statement.setArray(13, connection.createArrayOf("text", paramSchemas));
+        return statement;
+    }
+
+    private String toJson(Map<String, Object> paramSchema) {
+        if (paramSchema == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(paramSchema);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize param schema", e);
+        }
+    }
+
+    public record TemplateRow(String templateId, String language, String name, String description, String content,
+                              String contentHash, TemplateCategory category, Map<String, Object> paramSchema) {
+    }
+
+    public record UpsertedTemplate(String templateId, String language, UUID uuid, long version, int revision, boolean created) {
+    }
+}
@@ -1,34 +1,65 @@
 package com.corems.templatems.app.repository;
 
 import com.corems.common.utils.db.repo.SearchableRepository;
+import com.corems.templatems.api.model.TemplateCategory;
 import com.corems.templatems.app.entity.TemplateEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TemplateRepository extends SearchableRepository<TemplateEntity, Long> {
 
+    List<String> SEARCH_FIELDS = List.of("name", "description", "templateId");
+    List<String> FILTER_FIELDS = List.of("category", "language", "isDeleted");
+    List<String> SORT_FIELDS = List.of("name", "category", "language", "createdAt", "updatedAt", "templateId");
+
     Optional<TemplateEntity> findByTemplateIdAndLanguageAndIsDeletedFalse(String templateId, String language);
     
     Optional<TemplateEntity> findByUuid(UUID uuid);
     
     Optional<TemplateEntity> findByUuidAndIsDeletedFalse(UUID uuid);
 
+    /**
+     * Uuid of the template under the key, deleted or not; the key is unique across deleted rows too.
+     */
+    @Query("SELECT t.uuid FROM TemplateEntity t WHERE t.templateId = :templateId AND t.language = :language")
+    Optional<UUID> findUuidByTemplateIdAndLanguage(@Param("templateId") String templateId, @Param("language") String language);
+
+    /**
+     * Live templates in any of {@code categories} and {@code languages}; an empty collection selects all.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT t FROM TemplateEntity t
+            WHERE t.isDeleted = false
+              AND (:#{#categories.size()} = 0 OR t.category IN :categories)
+              AND (:#{#languages.size()} = 0 OR t.language IN :languages)
+            """)
+    Stream<TemplateEntity> streamLive(@Param("categories") Collection<TemplateCategory> categories,
+                                      @Param("languages") Collection<String> languages);
+
     @Override
     default List<String> getSearchFields() {
-        return List.of("name", "description", "templateId");
+        return SEARCH_FIELDS;
     }
 
     @Override
     default List<String> getAllowedFilterFields() {
-        return List.of("category", "language", "isDeleted");
+        return FILTER_FIELDS;
     }
 
     @Override
     default List<String> getAllowedSortFields() {
-        return List.of("name", "category", "language", "createdAt", "updatedAt", "templateId");
+        return SORT_FIELDS;
     }
 }
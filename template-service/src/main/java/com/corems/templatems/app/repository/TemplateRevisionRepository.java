@@ -0,0 +1,26 @@
+package com.corems.templatems.app.repository;
+
+import com.corems.templatems.app.entity.TemplateRevisionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TemplateRevisionRepository extends JpaRepository<TemplateRevisionEntity, Long> {
+
+    Optional<TemplateRevisionEntity> findByTemplateUuidAndRevision(UUID templateUuid, int revision);
+
+    List<TemplateRevisionEntity> findAllByTemplateUuidOrderByRevisionDesc(UUID templateUuid);
+
+    /**
+     * Highest revision written for the template. Revisions follow the template's uuid, so a rename keeps its
+     * history and a template created under a freed key starts its own.
+     */
+    @Query("SELECT COALESCE(MAX(r.revision), 0) FROM TemplateRevisionEntity r WHERE r.templateUuid = :templateUuid")
+    int findLatestRevision(@Param("templateUuid") UUID templateUuid);
+}
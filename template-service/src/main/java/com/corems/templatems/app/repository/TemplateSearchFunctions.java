@@ -0,0 +1,45 @@
+package com.corems.templatems.app.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Full-text and trigram functions for template search, usable from criteria queries. Each takes the
+ * {@code template_id}, {@code name} and {@code description} columns, so the match is written exactly as the
+ * {@code template_search_vector(...)} expression the GIN index is built on (migration V1.0.4).
+ */
+public class TemplateSearchFunctions implements FunctionContributor {
+
+    /**
+     * {@code (templateId, name, description, query)}: the web-style text query matches the search vector.
+     */
+    public static final String MATCHES = "template_search_matches";
+
+    /**
+     * {@code (templateId, name, description, query)}: {@code ts_rank} of the match, id and name weighted above
+     * description.
+     */
+    public static final String RANK = "template_search_rank";
+
+    /**
+     * {@code (templateId, name, term)}: the better trigram similarity of the id or the name to the term.
+     */
+    public static final String SIMILARITY = "template_search_similarity";
+
+    private static final String VECTOR = "template_search_vector(?1, ?2, ?3)";
+    private static final String QUERY = "websearch_to_tsquery('simple', ?4)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        registry.registerPattern(MATCHES, "(" + VECTOR + " @@ " + QUERY + ")", types.resolve(StandardBasicTypes.BOOLEAN));
+        registry.registerPattern(RANK, "ts_rank(" + VECTOR + ", " + QUERY + ")", types.resolve(StandardBasicTypes.FLOAT));
+        registry.registerPattern(SIMILARITY, "greatest(similarity(?1, ?3), similarity(?2, ?3))",
+            types.resolve(StandardBasicTypes.FLOAT));
+    }
+}
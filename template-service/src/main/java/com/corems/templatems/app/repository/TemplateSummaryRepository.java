@@ -0,0 +1,29 @@
+package com.corems.templatems.app.repository;
+
+import com.corems.common.utils.db.repo.SearchableRepository;
+import com.corems.templatems.app.entity.TemplateSummaryEntity;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Same search, filter and sort fields as {@link TemplateRepository}, over {@link TemplateSummaryEntity}.
+ */
+@Repository
+public interface TemplateSummaryRepository extends SearchableRepository<TemplateSummaryEntity, Long> {
+
+    @Override
+    default List<String> getSearchFields() {
+        return TemplateRepository.SEARCH_FIELDS;
+    }
+
+    @Override
+    default List<String> getAllowedFilterFields() {
+        return TemplateRepository.FILTER_FIELDS;
+    }
+
+    @Override
+    default List<String> getAllowedSortFields() {
+        return TemplateRepository.SORT_FIELDS;
+    }
+}
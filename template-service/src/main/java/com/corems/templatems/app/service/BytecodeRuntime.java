@@ -0,0 +1,189 @@
+package com.corems.templatems.app.service;
+
+import com.github.jknack.handlebars.EscapingStrategy;
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.ValueResolver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operations the generated render methods call into: path lookups, truthiness, iteration and partials, with
+ * the semantics of the interpreter's {@code Context}, {@code if}/{@code each}/{@code with} helpers and
+ * {@code Partial} node. One instance per engine.
+ */
+final class BytecodeRuntime {
+
+    private static final List<ValueResolver> VALUE_RESOLVERS = ValueResolver.defaultValueResolvers();
+
+    private final Handlebars handlebars;
+    private final EscapingStrategy escapingStrategy;
+    private final ThreadLocal<Deque<String>> partials = ThreadLocal.withInitial(ArrayDeque::new);
+
+    BytecodeRuntime(Handlebars handlebars) {
+        this.handlebars = handlebars;
+        this.escapingStrategy = handlebars.getEscapingStrategy();
+    }
+
+    /**
+     * A path expression parsed at compile time: {@code this}, a {@code @data} variable, or property segments
+     * looked up {@code ups} scopes above the current one.
+     */
+    record Path(Kind kind, int ups, String[] segments) {
+
+        enum Kind { THIS, DATA, PROPERTY }
+    }
+
+    void write(Writer out, RenderScope scope, Path path) throws IOException {
+        Object value = lookup(scope, path);
+        if (value instanceof Handlebars.SafeString) {
+            out.write(value.toString());
+        } else if (value != null) {
+            out.append(escapingStrategy.escape(value.toString()));
+        }
+    }
+
+    void writeRaw(Writer out, RenderScope scope, Path path) throws IOException {
+        Object value = lookup(scope, path);
+        if (value != null) {
+            out.write(value.toString());
+        }
+    }
+
+    boolean truthy(RenderScope scope, Path path) {
+        return !Handlebars.Utils.isEmpty(lookup(scope, path));
+    }
+
+    /**
+     * The scope of a {@code #with} body, or {@code null} when the value is empty and the inverse applies.
+     */
+    RenderScope with(RenderScope scope, Path path) {
+        Object value = lookup(scope, path);
+        return Handlebars.Utils.isEmpty(value) ? null : scope.with(value);
+    }
+
+    /**
+     * The items of an {@code #each}, or {@code null} when there are none and the inverse applies. Maps and
+     * other objects are iterated as key/value entries.
+     */
+    Iterator<?> iterate(RenderScope scope, Path path) {
+        Object value = lookup(scope, path);
+        if (value == null) {
+            return null;
+        }
+        Iterator<?> items = value instanceof Iterable<?> iterable
+            ? iterable.iterator()
+            : new Entries(value instanceof Map<?, ?> map ? map.entrySet().iterator() : properties(value).entrySet().iterator());
+        return items.hasNext() ? items : null;
+    }
+
+    RenderScope next(RenderScope scope, Iterator<?> items, int index) {
+        Object item = items.next();
+        if (items instanceof Entries) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) item;
+            return scope.item(entry.getValue(), index, !items.hasNext(), String.valueOf(entry.getKey()));
+        }
+        return scope.item(item, index, !items.hasNext(), null);
+    }
+
+    void partial(RenderScope scope, Writer out, String name) throws IOException {
+        Deque<String> calling = partials.get();
+        if (calling.contains(name)) {
+            throw new IOException("infinite loop detected, partial '" + name + "' is calling itself");
+        }
+        Template template = handlebars.compile(handlebars.getLoader().sourceAt(name));
+        calling.push(name);
+        try {
+            if (template instanceof BytecodeTemplate compiled) {
+                compiled.render(scope, out);
+            } else {
+                template.apply(scope.toContext(), out);
+            }
+        } finally {
+            calling.pop();
+        }
+    }
+
+    Object lookup(RenderScope scope, Path path) {
+        RenderScope start = scope.up(path.ups());
+        if (start == null) {
+            return null;
+        }
+        return switch (path.kind()) {
+            case THIS -> start.value;
+            case DATA -> start.data(path.segments()[0]);
+            // Like the interpreter, a path missing in the current scope is looked up in the enclosing ones.
+            case PROPERTY -> {
+                for (RenderScope candidate = start; candidate != null; candidate = candidate.parent) {
+                    Object value = resolve(candidate.value, path.segments());
+                    if (value != null) {
+                        yield value;
+                    }
+                }
+                yield null;
+            }
+        };
+    }
+
+    private static Object resolve(Object value, String[] segments) {
+        for (String segment : segments) {
+            if (value == null) {
+                return null;
+            }
+            value = property(value, segment);
+        }
+        return value;
+    }
+
+    private static Object property(Object value, String name) {
+        if (value instanceof Map<?, ?> map) {
+            return map.get(name);
+        }
+        if (value instanceof List<?> list && isIndex(name)) {
+            int index = Integer.parseInt(name);
+            return index < list.size() ? list.get(index) : null;
+        }
+        for (ValueResolver resolver : VALUE_RESOLVERS) {
+            Object resolved = resolver.resolve(value, name);
+            if (resolved != ValueResolver.UNRESOLVED) {
+                return resolved;
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Object> properties(Object value) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (ValueResolver resolver : VALUE_RESOLVERS) {
+            resolver.propertySet(value).forEach(entry -> properties.putIfAbsent(entry.getKey(), entry.getValue()));
+        }
+        return properties;
+    }
+
+    private static boolean isIndex(String name) {
+        return !name.isEmpty() && name.length() < 10 && name.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * Marks entry iteration so {@link #next} sets {@code @key} and iterates the values.
+     */
+    private record Entries(Iterator<? extends Map.Entry<?, ?>> delegate) implements Iterator<Map.Entry<?, ?>> {
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Map.Entry<?, ?> next() {
+            return delegate.next();
+        }
+    }
+}
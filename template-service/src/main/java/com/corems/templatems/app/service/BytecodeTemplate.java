@@ -0,0 +1,105 @@
+package com.corems.templatems.app.service;
+
+import com.github.jknack.handlebars.Context;
+import com.github.jknack.handlebars.TagType;
+import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.TypeSafeTemplate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * A template rendered by a class generated by {@link TemplateBytecodeCompiler}. It stands in for the
+ * interpreted template everywhere Handlebars expects one, so it can be cached and included as a partial
+ * like any other; everything but rendering is answered by the interpreted template.
+ */
+final class BytecodeTemplate implements Template {
+
+    /**
+     * Implemented by the generated class.
+     */
+    interface Renderer {
+
+        void render(RenderScope scope, Writer out, BytecodeRuntime runtime) throws IOException;
+    }
+
+    private final Template interpreted;
+    private final Renderer renderer;
+    private final BytecodeRuntime runtime;
+
+    BytecodeTemplate(Template interpreted, Renderer renderer, BytecodeRuntime runtime) {
+        this.interpreted = interpreted;
+        this.renderer = renderer;
+        this.runtime = runtime;
+    }
+
+    void render(RenderScope scope, Writer writer) throws IOException {
+        renderer.render(scope, writer, runtime);
+    }
+
+    @Override
+    public void apply(Object context, Writer writer) throws IOException {
+        render(context instanceof Context c ? RenderScope.of(c) : RenderScope.root(context), writer);
+    }
+
+    @Override
+    public String apply(Object context) throws IOException {
+        StringWriter writer = new StringWriter();
+        apply(context, writer);
+        return writer.toString();
+    }
+
+    @Override
+    public void apply(Context context, Writer writer) throws IOException {
+        render(RenderScope.of(context), writer);
+    }
+
+    @Override
+    public String apply(Context context) throws IOException {
+        StringWriter writer = new StringWriter();
+        apply(context, writer);
+        return writer.toString();
+    }
+
+    @Override
+    public String text() {
+        return interpreted.text();
+    }
+
+    @Override
+    public String toJavaScript() {
+        return interpreted.toJavaScript();
+    }
+
+    @Override
+    public <T, S extends TypeSafeTemplate<T>> S as(Class<S> type) {
+        return interpreted.as(type);
+    }
+
+    @Override
+    public <T> TypeSafeTemplate<T> as() {
+        return interpreted.as();
+    }
+
+    @Override
+    public List<String> collect(TagType... tagType) {
+        return interpreted.collect(tagType);
+    }
+
+    @Override
+    public List<String> collectReferenceParameters() {
+        return interpreted.collectReferenceParameters();
+    }
+
+    @Override
+    public String filename() {
+        return interpreted.filename();
+    }
+
+    @Override
+    public int[] position() {
+        return interpreted.position();
+    }
+}
@@ -0,0 +1,213 @@
+package com.corems.templatems.app.service;
+
+import com.github.jknack.handlebars.TagType;
+import com.github.jknack.handlebars.Template;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read access to the nodes of a compiled Handlebars template. Handlebars keeps its node classes
+ * package-private, so they are read reflectively; {@link #get()} returns {@code null} if that stops working
+ * after an upgrade and callers fall back to what the public {@link Template} API offers.
+ */
+@Slf4j
+final class HandlebarsAst {
+
+    enum Kind { LIST, TEXT, VARIABLE, BLOCK, PARTIAL, OTHER }
+
+    private static final String PACKAGE = "com.github.jknack.handlebars.internal.";
+    private static final HandlebarsAst INSTANCE = load();
+
+    private final Class<?> text;
+    private final Class<?> variable;
+    private final Class<?> block;
+    private final Class<?> partial;
+    private final Class<?> forwarding;
+    private final Class<?> refParam;
+    private final Class<?> varParam;
+    private final Method textContent;
+    private final Field variableName;
+    private final Field variableType;
+    private final Field blockName;
+    private final Field blockInverted;
+    private final Field body;
+    private final Field inverse;
+    private final Field blockParams;
+    private final Field params;
+    private final Field hash;
+    private final Field partialPath;
+    private final Field partialContext;
+    private final Field partialIndent;
+    private final Field partialBlock;
+    private final Field forwarded;
+    private final Field subExpression;
+
+    private HandlebarsAst() throws ReflectiveOperationException {
+        text = Class.forName(PACKAGE + "Text");
+        variable = Class.forName(PACKAGE + "Variable");
+        block = Class.forName(PACKAGE + "Block");
+        partial = Class.forName(PACKAGE + "Partial");
+        forwarding = Class.forName(PACKAGE + "ForwardingTemplate");
+        refParam = Class.forName(PACKAGE + "RefParam");
+        varParam = Class.forName(PACKAGE + "VarParam");
+        Class<?> helperResolver = Class.forName(PACKAGE + "HelperResolver");
+
+        textContent = text.getDeclaredMethod("textWithoutEscapeChar");
+        textContent.setAccessible(true);
+        variableName = field(variable, "name");
+        variableType = field(variable, "type");
+        blockName = field(block, "name");
+        blockInverted = field(block, "inverted");
+        body = field(block, "body");
+        inverse = field(block, "inverse");
+        blockParams = field(block, "blockParams");
+        params = field(helperResolver, "params");
+        hash = field(helperResolver, "hash");
+        partialPath = field(partial, "path");
+        partialContext = field(partial, "context");
+        partialIndent = field(partial, "indent");
+        partialBlock = field(partial, "partial");
+        forwarded = field(forwarding, "template");
+        subExpression = field(varParam, "fn");
+    }
+
+    static HandlebarsAst get() {
+        return INSTANCE;
+    }
+
+    /**
+     * The node itself, or the template a top-level wrapper forwards to.
+     */
+    Template unwrap(Template node) {
+        while (forwarding.isInstance(node)) {
+            node = (Template) read(forwarded, node);
+        }
+        return node;
+    }
+
+    Kind kind(Template node) {
+        if (node instanceof Iterable<?>) {
+            return Kind.LIST;
+        } else if (text.isInstance(node)) {
+            return Kind.TEXT;
+        } else if (variable.isInstance(node)) {
+            return Kind.VARIABLE;
+        } else if (block.isInstance(node)) {
+            return Kind.BLOCK;
+        } else if (partial.isInstance(node)) {
+            return Kind.PARTIAL;
+        }
+        return Kind.OTHER;
+    }
+
+    @SuppressWarnings("unchecked")
+    Iterable<Template> children(Template list) {
+        return (Iterable<Template>) list;
+    }
+
+    String text(Template text) {
+        try {
+            return new String((char[]) textContent.invoke(text));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Name of a variable, block or helper call as written, e.g. {@code user.name} or {@code each}.
+     */
+    String name(Template node) {
+        return (String) read(block.isInstance(node) ? blockName : variableName, node);
+    }
+
+    TagType variableType(Template variable) {
+        return (TagType) read(variableType, variable);
+    }
+
+    boolean inverted(Template block) {
+        return (boolean) read(blockInverted, block);
+    }
+
+    Template body(Template block) {
+        return (Template) read(body, block);
+    }
+
+    Template inverse(Template block) {
+        return (Template) read(inverse, block);
+    }
+
+    @SuppressWarnings("unchecked")
+    List<String> blockParams(Template block) {
+        return (List<String>) read(blockParams, block);
+    }
+
+    /**
+     * Positional arguments of a variable, block or partial.
+     */
+    @SuppressWarnings("unchecked")
+    List<Object> params(Object helperResolver) {
+        return (List<Object>) read(params, helperResolver);
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> hash(Object helperResolver) {
+        return (Map<String, Object>) read(hash, helperResolver);
+    }
+
+    Template partialPath(Template partial) {
+        return (Template) read(partialPath, partial);
+    }
+
+    String partialContext(Template partial) {
+        return (String) read(partialContext, partial);
+    }
+
+    String partialIndent(Template partial) {
+        return (String) read(partialIndent, partial);
+    }
+
+    Template partialBlock(Template partial) {
+        return (Template) read(partialBlock, partial);
+    }
+
+    /**
+     * Whether an argument is a path expression; its {@code toString()} is the path as written.
+     */
+    boolean isReference(Object param) {
+        return refParam.isInstance(param);
+    }
+
+    /**
+     * The helper call of a sub-expression argument such as {@code (lookup map key)}, or {@code null}.
+     */
+    Template subExpression(Object param) {
+        return varParam.isInstance(param) ? (Template) read(subExpression, param) : null;
+    }
+
+    private static Object read(Field field, Object node) {
+        try {
+            return field.get(node);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Field field(Class<?> type, String name) throws NoSuchFieldException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    private static HandlebarsAst load() {
+        try {
+            return new HandlebarsAst();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Handlebars AST is not accessible, template analysis falls back to the public API: {}", e.toString());
+            return null;
+        }
+    }
+}
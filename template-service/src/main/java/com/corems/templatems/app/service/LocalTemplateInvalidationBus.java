@@ -0,0 +1,31 @@
+package com.corems.templatems.app.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "template-service.cache.invalidation", name = "mode", havingValue = "local")
+public class LocalTemplateInvalidationBus implements TemplateInvalidationBus {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(TemplateInvalidation invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(invalidation);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventPublisher.publishEvent(invalidation);
+            }
+        });
+    }
+}
@@ -0,0 +1,194 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.exception.ServiceException;
+import com.corems.templatems.api.model.TemplateParamDefinition.TypeEnum;
+import com.corems.templatems.app.exception.TemplateServiceExceptionReasonCodes;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Render parameter check compiled once from a template's {@code param_schema}. The schema is flattened into
+ * arrays with precompiled patterns, so a valid request costs one map lookup and one type check per declared
+ * parameter; error messages are only built once a check has failed. A parameter without a declared type
+ * accepts any value.
+ */
+@Slf4j
+public final class ParamValidator {
+
+    private static final ParamValidator EMPTY = new ParamValidator(new String[0], new boolean[0], new TypeEnum[0], new Pattern[0]);
+
+    private final String[] names;
+    private final boolean[] required;
+    private final TypeEnum[] types;
+    private final Pattern[] patterns;
+
+    private ParamValidator(String[] names, boolean[] required, TypeEnum[] types, Pattern[] patterns) {
+        this.names = names;
+        this.required = required;
+        this.types = types;
+        this.patterns = patterns;
+    }
+
+    public static ParamValidator compile(Map<String, Object> paramSchema) {
+        return compile(paramSchema, null);
+    }
+
+    /**
+     * Compiles a schema read back with a template. Schemas stored before types and patterns were enforced
+     * may declare constraints that do not compile; those are logged and skipped, so the template stays
+     * renderable.
+     */
+    public static ParamValidator compileStored(String templateKey, Map<String, Object> paramSchema) {
+        return compile(paramSchema, templateKey);
+    }
+
+    private static ParamValidator compile(Map<String, Object> paramSchema, String storedTemplateKey) {
+        if (paramSchema == null || paramSchema.isEmpty()) {
+            return EMPTY;
+        }
+
+        int size = paramSchema.size();
+        String[] names = new String[size];
+        boolean[] required = new boolean[size];
+        TypeEnum[] types = new TypeEnum[size];
+        Pattern[] patterns = new Pattern[size];
+
+        int i = 0;
+        for (Map.Entry<String, Object> entry : paramSchema.entrySet()) {
+            names[i] = entry.getKey();
+            if (entry.getValue() instanceof Map<?, ?> definition) {
+                required[i] = Boolean.TRUE.equals(definition.get("required"));
+                try {
+                    types[i] = parseType(entry.getKey(), definition.get("type"));
+                } catch (ServiceException e) {
+                    skipInvalid(storedTemplateKey, e);
+                }
+                try {
+                    patterns[i] = parsePattern(entry.getKey(), definition.get("pattern"));
+                } catch (ServiceException e) {
+                    skipInvalid(storedTemplateKey, e);
+                }
+            }
+            i++;
+        }
+
+        return new ParamValidator(names, required, types, patterns);
+    }
+
+    public void validate(Map<String, Object> params) {
+        Violation violation = check(params);
+        if (violation != null) {
+            throw violation.toException();
+        }
+    }
+
+    /**
+     * Returns the first failed check, or {@code null} when the params are valid.
+     */
+    public Violation check(Map<String, Object> params) {
+        for (int i = 0; i < names.length; i++) {
+            Object value = params.get(names[i]);
+            if (value == null ? required[i] && !params.containsKey(names[i]) : !accepts(i, value)) {
+                return reject(params);
+            }
+        }
+        return null;
+    }
+
+    private boolean accepts(int i, Object value) {
+        return matchesType(i, value) && matchesPattern(i, value);
+    }
+
+    private boolean matchesType(int i, Object value) {
+        if (types[i] == null) {
+            return true;
+        }
+        return switch (types[i]) {
+            case STRING -> isScalar(value);
+            case NUMBER -> value instanceof Number;
+            case BOOLEAN -> value instanceof Boolean;
+            case OBJECT -> value instanceof Map;
+            case ARRAY -> value instanceof Collection || value.getClass().isArray();
+        };
+    }
+
+    private boolean matchesPattern(int i, Object value) {
+        // Patterns only constrain string and untyped scalar params, matched against their string form.
+        if (patterns[i] == null || (types[i] == null ? !isScalar(value) : types[i] != TypeEnum.STRING)) {
+            return true;
+        }
+        return patterns[i].matcher(value instanceof CharSequence text ? text : value.toString()).matches();
+    }
+
+    private static boolean isScalar(Object value) {
+        return value instanceof CharSequence || value instanceof Number || value instanceof Boolean;
+    }
+
+    private Violation reject(Map<String, Object> params) {
+        List<String> missing = new ArrayList<>();
+        List<String> invalid = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            Object value = params.get(names[i]);
+            if (value == null) {
+                if (required[i] && !params.containsKey(names[i])) {
+                    missing.add(names[i]);
+                }
+            } else if (!matchesType(i, value)) {
+                invalid.add(names[i] + " (expected " + types[i].getValue() + ")");
+            } else if (!matchesPattern(i, value)) {
+                invalid.add(names[i] + " (must match " + patterns[i].pattern() + ")");
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            return new Violation(TemplateServiceExceptionReasonCodes.MISSING_REQUIRED_PARAMS,
+                "Missing required parameters: " + String.join(", ", missing));
+        }
+        return new Violation(TemplateServiceExceptionReasonCodes.INVALID_PARAMS,
+            "Invalid parameters: " + String.join(", ", invalid));
+    }
+
+    private static void skipInvalid(String storedTemplateKey, ServiceException e) {
+        if (storedTemplateKey == null) {
+            throw e;
+        }
+        log.warn("Ignoring invalid constraint in the stored param schema of template '{}': {}", storedTemplateKey, e.getMessage());
+    }
+
+    private static TypeEnum parseType(String name, Object type) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return TypeEnum.fromValue(type.toString());
+        } catch (IllegalArgumentException e) {
+            throw ServiceException.of(TemplateServiceExceptionReasonCodes.INVALID_PARAM_SCHEMA,
+                "Unknown type '" + type + "' for parameter '" + name + "'");
+        }
+    }
+
+    private static Pattern parsePattern(String name, Object pattern) {
+        if (pattern == null) {
+            return null;
+        }
+        try {
+            return Pattern.compile(pattern.toString());
+        } catch (PatternSyntaxException e) {
+            throw ServiceException.of(TemplateServiceExceptionReasonCodes.INVALID_PARAM_SCHEMA,
+                "Invalid pattern for parameter '" + name + "': " + e.getDescription());
+        }
+    }
+
+    public record Violation(TemplateServiceExceptionReasonCodes reason, String message) {
+
+        public ServiceException toException() {
+            return ServiceException.of(reason, message);
+        }
+    }
+}
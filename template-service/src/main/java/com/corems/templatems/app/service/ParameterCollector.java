@@ -0,0 +1,211 @@
+package com.corems.templatems.app.service;
+
+import com.github.jknack.handlebars.TagType;
+import com.github.jknack.handlebars.Template;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Derives a param schema from a compiled template by walking its AST, so references are resolved with the
+ * scoping Handlebars itself applies: {@code {{#each items as |item|}}} makes {@code items} an array and its
+ * body, block params and {@code this} included, refers to the item rather than to the params;
+ * {@code {{#with user}}} does the same for an object; values only referenced under {@code #if}, {@code #unless}
+ * or a loop are optional; helper and sub-expression arguments are visited but left untyped.
+ * <p>
+ * Should the AST not be readable, the collector falls back to the flat {@link Template#collect} variable list.
+ */
+final class ParameterCollector {
+
+    private static final String STRING = "string";
+    private static final String OBJECT = "object";
+    private static final String ARRAY = "array";
+    private static final List<String> TYPE_RANK = List.of(STRING, OBJECT, ARRAY);
+
+    private final HandlebarsAst ast = HandlebarsAst.get();
+    private final Predicate<String> isHelper;
+    private final Map<String, Usage> usages = new LinkedHashMap<>();
+    private int contextDepth;
+    private int optionalDepth;
+
+    private ParameterCollector(Predicate<String> isHelper) {
+        this.isHelper = isHelper;
+    }
+
+    static Map<String, Object> collect(Template template, Predicate<String> isHelper) {
+        ParameterCollector collector = new ParameterCollector(isHelper);
+        if (collector.ast != null) {
+            collector.visit(template);
+        } else {
+            template.collect(TagType.VAR, TagType.TRIPLE_VAR).forEach(name -> collector.reference(name, STRING));
+        }
+        return collector.schema();
+    }
+
+    private Map<String, Object> schema() {
+        Map<String, Object> paramSchema = new HashMap<>();
+        usages.forEach((name, usage) -> {
+            // Only conditions and helper arguments: any value is acceptable, which the schema cannot express.
+            if (usage.type != null) {
+                Map<String, Object> paramDef = new HashMap<>();
+                paramDef.put("required", usage.required);
+                paramDef.put("type", usage.type);
+                paramSchema.put(name, paramDef);
+            }
+        });
+        return paramSchema;
+    }
+
+    private void visit(Template node) {
+        node = ast.unwrap(node);
+        switch (ast.kind(node)) {
+            case LIST -> ast.children(node).forEach(this::visit);
+            case BLOCK -> visitBlock(node);
+            case VARIABLE -> visitVariable(node);
+            // Partials: their hash arguments are evaluated in this scope, the partial itself is a separate template.
+            case PARTIAL -> visitArguments(node);
+            default -> {
+            }
+        }
+    }
+
+    private void visitBlock(Template block) {
+        String name = ast.name(block);
+        List<Object> params = ast.params(block);
+        Template body = ast.body(block);
+        Template inverse = ast.inverse(block);
+
+        switch (name) {
+            case "each", "with" -> {
+                if (!params.isEmpty() && ast.isReference(params.getFirst())) {
+                    reference(params.getFirst().toString(), "each".equals(name) ? ARRAY : OBJECT);
+                }
+                visitNested(body);
+            }
+            case "if", "unless" -> {
+                visitArguments(block);
+                visitOptional(body);
+            }
+            default -> {
+                if (isHelper.test(name)) {
+                    visitArguments(block);
+                    visitOptional(body);
+                } else {
+                    // A plain section iterates, enters or tests its value depending on what it is at render time.
+                    reference(name, null);
+                    visitNested(body);
+                }
+            }
+        }
+        visitOptional(inverse);
+    }
+
+    private void visitVariable(Template variable) {
+        String name = ast.name(variable);
+        if (isHelper.test(name) || hasArguments(variable)) {
+            visitArguments(variable);
+        } else {
+            reference(name, STRING);
+        }
+    }
+
+    private void visitArguments(Template helperResolver) {
+        ast.params(helperResolver).forEach(this::visitArgument);
+        ast.hash(helperResolver).values().forEach(this::visitArgument);
+    }
+
+    private void visitArgument(Object param) {
+        if (ast.isReference(param)) {
+            reference(param.toString(), null);
+        } else if (ast.subExpression(param) != null) {
+            visitVariable(ast.subExpression(param));
+        }
+    }
+
+    private boolean hasArguments(Template helperResolver) {
+        return !ast.params(helperResolver).isEmpty() || !ast.hash(helperResolver).isEmpty();
+    }
+
+    private void visitNested(Template body) {
+        contextDepth++;
+        try {
+            visitOptional(body);
+        } finally {
+            contextDepth--;
+        }
+    }
+
+    private void visitOptional(Template body) {
+        if (body == null) {
+            return;
+        }
+        optionalDepth++;
+        try {
+            visit(body);
+        } finally {
+            optionalDepth--;
+        }
+    }
+
+    /**
+     * Records a path expression if it resolves against the root params; {@code type} is that of the value
+     * the path points at, or {@code null} when any value is acceptable.
+     */
+    private void reference(String path, String type) {
+        boolean fromRoot = path.startsWith("@root.");
+        if (fromRoot) {
+            path = path.substring("@root.".length());
+        } else if (path.startsWith("@")) {
+            return;
+        }
+
+        int up = 0;
+        while (path.startsWith("../")) {
+            path = path.substring("../".length());
+            up++;
+        }
+        if (path.startsWith("this.")) {
+            path = path.substring("this.".length());
+        } else if (path.startsWith("./")) {
+            path = path.substring("./".length());
+        } else if (path.isEmpty() || path.equals("this") || path.equals(".")) {
+            return;
+        }
+
+        String[] segments = path.split("[./]");
+        String name = unbracket(segments[0]);
+        if (!fromRoot && up != contextDepth) {
+            // Resolves against the context of an enclosing block (an item, a block param, a with-object).
+            return;
+        }
+
+        if (segments.length > 1) {
+            type = isIndex(segments[1]) ? ARRAY : OBJECT;
+        }
+        usages.computeIfAbsent(name, key -> new Usage()).add(type, optionalDepth == 0);
+    }
+
+    private static boolean isIndex(String segment) {
+        return unbracket(segment).chars().allMatch(Character::isDigit);
+    }
+
+    private static String unbracket(String segment) {
+        return segment.startsWith("[") && segment.endsWith("]") ? segment.substring(1, segment.length() - 1) : segment;
+    }
+
+    private static final class Usage {
+
+        private String type;
+        private boolean required;
+
+        private void add(String type, boolean required) {
+            this.required |= required && type != null;
+            if (type != null && (this.type == null || TYPE_RANK.indexOf(type) > TYPE_RANK.indexOf(this.type))) {
+                this.type = type;
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Fans template invalidations out to every replica through Postgres {@code LISTEN/NOTIFY}.
+ * {@code pg_notify} runs inside the writing transaction, so peers are only notified once it commits.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "template-service.cache.invalidation", name = "mode", havingValue = "postgres", matchIfMissing = true)
+public class PostgresTemplateInvalidationBus implements TemplateInvalidationBus, SmartLifecycle {
+
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LocalTemplateInvalidationBus localBus;
+    private final TemplateServiceProperties.Invalidation config;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CountDownLatch subscribed = new CountDownLatch(1);
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresTemplateInvalidationBus(JdbcTemplate jdbcTemplate,
+                                           DataSourceProperties dataSourceProperties,
+                                           ObjectMapper objectMapper,
+                                           ApplicationEventPublisher eventPublisher,
+                                           TemplateServiceProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.localBus = new LocalTemplateInvalidationBus(eventPublisher);
+        this.config = properties.getCache().getInvalidation();
+
+        if (!CHANNEL_PATTERN.matcher(config.getChannel()).matches()) {
+            throw new IllegalArgumentException("Invalid template invalidation channel: " + config.getChannel());
+        }
+    }
+
+    @Override
+    public void publish(TemplateInvalidation invalidation) {
+        Notification notification = new Notification(nodeId, invalidation.templateId(), invalidation.language(), invalidation.version());
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, config.getChannel(), objectMapper.writeValueAsString(notification));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize template invalidation", e);
+        }
+        localBus.publish(invalidation);
+    }
+
+    @Override
+    public boolean awaitSubscribed(Duration timeout) throws InterruptedException {
+        return subscribed.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofVirtual().name("template-invalidation-listener").start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + config.getChannel());
+                }
+                log.info("Listening for template invalidations on channel '{}'", config.getChannel());
+
+                // Anything published while this node was not listening is lost, so start from a clean cache.
+                eventPublisher.publishEvent(TemplateInvalidation.all());
+                subscribed.countDown();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) config.getPollTimeout().toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            try {
+                                handle(notification.getParameter());
+                            } catch (RuntimeException e) {
+                                // A failing listener must not end the loop and leave this replica serving stale templates.
+                                log.error("Failed to apply template invalidation: {}", notification.getParameter(), e);
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                // Reconnecting clears the caches again, so whatever went wrong is not left behind.
+                if (running) {
+                    log.warn("Template invalidation listener disconnected, reconnecting in {}", config.getReconnectDelay(), e);
+                    sleep(config.getReconnectDelay());
+                }
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        try {
+            Notification notification = objectMapper.readValue(payload, Notification.class);
+            if (nodeId.equals(notification.nodeId())) {
+                return;
+            }
+            log.debug("Received template invalidation: {} (language: {}, version: {})",
+                notification.templateId(), notification.language(), notification.version());
+            eventPublisher.publishEvent(notification.templateId() == null
+                ? TemplateInvalidation.all()
+                : new TemplateInvalidation(notification.templateId(), notification.language(), notification.version()));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed template invalidation payload: {}", payload, e);
+        }
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Notification(String nodeId, String templateId, String language, long version) {
+    }
+}
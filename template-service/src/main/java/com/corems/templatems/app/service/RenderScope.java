@@ -0,0 +1,98 @@
+package com.corems.templatems.app.service;
+
+import com.github.jknack.handlebars.Context;
+
+/**
+ * Context stack of a bytecode-compiled render: the params at the root and one scope per {@code #each} item
+ * or {@code #with} value, mirroring the {@link Context} chain the interpreter builds.
+ */
+final class RenderScope {
+
+    final RenderScope parent;
+    final Object value;
+    private final boolean iteration;
+    private final int index;
+    private final boolean last;
+    private final String key;
+
+    private RenderScope(RenderScope parent, Object value, boolean iteration, int index, boolean last, String key) {
+        this.parent = parent;
+        this.value = value;
+        this.iteration = iteration;
+        this.index = index;
+        this.last = last;
+        this.key = key;
+    }
+
+    static RenderScope root(Object model) {
+        return new RenderScope(null, model, false, 0, false, null);
+    }
+
+    /**
+     * Rebuilds the scope chain of an interpreted render, e.g. when an interpreted template includes a
+     * compiled partial.
+     */
+    static RenderScope of(Context context) {
+        RenderScope parent = context.parent() != null ? of(context.parent()) : null;
+        if (context.data("index") instanceof Integer index) {
+            Object key = context.data("key");
+            return new RenderScope(parent, context.model(), true, index, isSet(context.data("last")),
+                key != null ? key.toString() : null);
+        }
+        return new RenderScope(parent, context.model(), false, 0, false, null);
+    }
+
+    RenderScope with(Object value) {
+        return new RenderScope(this, value, false, 0, false, null);
+    }
+
+    RenderScope item(Object value, int index, boolean last, String key) {
+        return new RenderScope(this, value, true, index, last, key);
+    }
+
+    RenderScope up(int levels) {
+        RenderScope scope = this;
+        for (int i = 0; i < levels && scope != null; i++) {
+            scope = scope.parent;
+        }
+        return scope;
+    }
+
+    /**
+     * {@code @index}, {@code @key}, {@code @first} and {@code @last} of the innermost {@code #each}, with the
+     * values the interpreter's each helper uses.
+     */
+    Object data(String name) {
+        RenderScope scope = this;
+        while (scope != null && !scope.iteration) {
+            scope = scope.parent;
+        }
+        if (scope == null) {
+            return null;
+        }
+        return switch (name) {
+            case "index" -> scope.index;
+            case "key" -> scope.key;
+            case "first" -> scope.index == 0 ? "first" : "";
+            case "last" -> scope.last ? "last" : "";
+            default -> null;
+        };
+    }
+
+    Context toContext() {
+        Context context = parent != null ? Context.newContext(parent.toContext(), value) : Context.newContext(value);
+        if (iteration) {
+            context.data("index", index);
+            context.data("first", data("first"));
+            context.data("last", data("last"));
+            if (key != null) {
+                context.data("key", key);
+            }
+        }
+        return context;
+    }
+
+    private static boolean isSet(Object data) {
+        return data != null && !"".equals(data) && !Boolean.FALSE.equals(data);
+    }
+}
@@ -0,0 +1,162 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in cache of rendered output keyed by {@code (templateId, language, version, canonical params hash)}.
+ * Concurrent misses for the same key are coalesced: the first caller renders on its own thread and the others
+ * wait for its result, so a burst of identical requests renders once. Failed renders are not cached.
+ * <p>
+ * Output can depend on other templates through partials and legacy {@code template_<id>} params, so any
+ * template invalidation starts a new generation instead of evicting per key; renders still in flight from
+ * the previous generation can never be served afterwards.
+ */
+@Component
+public class RenderedOutputCache implements MeterBinder {
+
+    private final TemplateServiceProperties.OutputCache config;
+    private final AsyncCache<OutputKey, String> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public RenderedOutputCache(TemplateServiceProperties properties) {
+        this.config = properties.getCache().getOutput();
+        this.cache = buildCache(config);
+    }
+
+    public boolean appliesTo(TemplateSnapshot snapshot) {
+        return config.isEnabled()
+            && (config.getTemplateIds().isEmpty() || config.getTemplateIds().contains(snapshot.templateId()))
+            && (config.getCategories().isEmpty() || config.getCategories().contains(snapshot.category()));
+    }
+
+    /**
+     * Returns the cached output for these params, rendering it with {@code render} on a miss. Params that
+     * cannot be canonicalized (values other than JSON types) bypass the cache.
+     */
+    public String get(TemplateSnapshot snapshot, Map<String, Object> params, Supplier<String> render) {
+        String canonicalParams = canonicalize(params);
+        if (canonicalParams == null) {
+            return render.get();
+        }
+
+        OutputKey key = new OutputKey(snapshot.cacheKey(), snapshot.version(), generation.get(),
+            TemplateEntity.sha256(canonicalParams));
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> output = cache.get(key, (k, executor) -> created);
+        if (output == created) {
+            try {
+                created.complete(render.get());
+            } catch (RuntimeException | Error e) {
+                created.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return output.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.synchronous().invalidateAll();
+    }
+
+    @EventListener
+    public void onTemplateInvalidation(TemplateInvalidation invalidation) {
+        clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "templates.rendered");
+    }
+
+    /**
+     * Writes params in a form where equal values give equal strings regardless of map ordering. Strings are
+     * length-prefixed so no value can imitate the separators of another.
+     */
+    static String canonicalize(Object value) {
+        StringBuilder out = new StringBuilder();
+        return append(out, value) ? out.toString() : null;
+    }
+
+    private static boolean append(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append('n');
+        } else if (value instanceof CharSequence text) {
+            out.append('s').append(text.length()).append(':').append(text);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value instanceof Boolean ? 'b' : 'd').append(value).append(';');
+        } else if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    return false;
+                }
+                sorted.put(key, entry.getValue());
+            }
+            out.append('{');
+            for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+                if (!append(out, entry.getKey()) || !append(out, entry.getValue())) {
+                    return false;
+                }
+            }
+            out.append('}');
+        } else if (value instanceof Collection<?> items) {
+            out.append('[');
+            for (Object item : items) {
+                if (!append(out, item)) {
+                    return false;
+                }
+            }
+            out.append(']');
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static AsyncCache<OutputKey, String> buildCache(TemplateServiceProperties.OutputCache config) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+
+        if (config.getMaxWeight() > 0) {
+            builder.maximumWeight(config.getMaxWeight())
+                    .weigher((OutputKey key, String output) -> output.length());
+        } else {
+            builder.maximumSize(config.getMaxEntries());
+        }
+
+        if (config.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(config.getExpireAfterWrite());
+        }
+
+        return builder.buildAsync();
+    }
+
+    private record OutputKey(String cacheKey, long version, long generation, String paramsHash) {
+    }
+}
@@ -1,56 +1,317 @@
 package com.corems.templatems.app.service;
 
-import com.corems.common.exception.ServiceException;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.entity.TemplateEntity;
 import com.corems.templatems.app.exception.TemplateServiceExceptionReasonCodes;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.HandlebarsException;
+import com.github.jknack.handlebars.Parser;
 import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.cache.TemplateCache;
+import com.github.jknack.handlebars.io.TemplateSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Component
-public class RenderingEngine {
+public class RenderingEngine implements MeterBinder {
 
     private final Handlebars handlebars;
-    private final Map<String, Template> templateCache;
+    private final SnapshotTemplateLoader partialLoader;
+    private final Cache<String, CompiledTemplate> templateCache;
+    private final Map<String, String> aliases = new ConcurrentHashMap<>();
+    // Number of aliases per content hash, so dropping an alias can tell whether the hash is still in use.
+    private final Map<String, Integer> aliasCounts = new ConcurrentHashMap<>();
+    private final TemplateRenderMetrics metrics;
+    private final BytecodeRuntime bytecodeRuntime;
 
-    public RenderingEngine() {
-        this.handlebars = new Handlebars();
-        this.templateCache = new ConcurrentHashMap<>();
+    public RenderingEngine(TemplateServiceProperties properties, TemplateSnapshotCache templateSnapshotCache,
+                           TemplateRenderMetrics metrics) {
+        this.templateCache = buildTemplateCache(properties.getCache().getCompiled());
+        this.partialLoader = new SnapshotTemplateLoader(templateSnapshotCache);
+        this.metrics = metrics;
+        // Partials go through the same compiled cache as top-level templates, so a composition costs one
+        // snapshot and one compiled-cache lookup per partial instead of a database query and a parse.
+        this.handlebars = new Handlebars(partialLoader).with(new CompiledTemplateCache());
+        this.bytecodeRuntime = properties.getRender().getBackend() == TemplateServiceProperties.RenderBackend.BYTECODE
+            ? new BytecodeRuntime(handlebars)
+            : null;
     }
 
-    public String render(String templateId, String templateContent, Map<String, Object> params) {
+    public String render(TemplateSnapshot snapshot, Map<String, Object> params) {
+        // Template.apply(Object) buffers into Handlebars' internal builder, which grows by exactly the appended
+        // length and so copies the whole output on every append; StringWriter grows geometrically.
+        StringWriter writer = new StringWriter(snapshot.content().length());
+        apply(snapshot, params, writer);
+        metrics.recordOutput(snapshot, writer.getBuffer().length());
+        return writer.toString();
+    }
+
+    public void render(TemplateSnapshot snapshot, Map<String, Object> params, Writer writer) {
+        CountingWriter counting = new CountingWriter(writer);
+        apply(snapshot, params, counting);
+        metrics.recordOutput(snapshot, counting.count);
+    }
+
+    public void precompile(TemplateSnapshot snapshot) {
+        getOrCompileTemplate(snapshot);
+    }
+
+    /**
+     * Parses content with this engine's partial loader and helpers, without caching it.
+     */
+    public Template compile(String content) throws IOException {
+        return handlebars.compileInline(content);
+    }
+
+    /**
+     * Stores a template compiled on the write path under the hash of its content, so the first render of the
+     * saved snapshot finds it instead of parsing the same content again.
+     */
+    public void prime(String content, Template template) {
+        templateCache.asMap().putIfAbsent(TemplateEntity.sha256(content),
+            new CompiledTemplate(backend(template), content.length()));
+    }
+
+    public boolean isHelper(String name) {
+        return handlebars.helper(name) != null;
+    }
+
+    /**
+     * Drops the {@code templateId:language} alias, and the compiled template behind it once no other
+     * alias shares that content.
+     */
+    public void invalidateCache(String cacheKey) {
+        aliases.computeIfPresent(cacheKey, (key, contentHash) -> {
+            release(contentHash, true);
+            return null;
+        });
+    }
+
+    public void clearCache() {
+        aliases.clear();
+        aliasCounts.clear();
+        templateCache.invalidateAll();
+    }
+
+    @EventListener
+    public void onTemplateInvalidation(TemplateInvalidation invalidation) {
+        if (invalidation.isGlobal()) {
+            clearCache();
+        } else {
+            invalidateCache(invalidation.cacheKey());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, templateCache, "templates.compiled");
+        registry.gauge("templates.compiled.aliases", aliases, Map::size);
+    }
+
+    /**
+     * Points {@code cacheKey} at {@code contentHash}, moving its reference from the hash it pointed at before,
+     * and returns that hash. Renders of an unchanged template only read the alias.
+     */
+    private String alias(String cacheKey, String contentHash) {
+        String current = aliases.get(cacheKey);
+        if (contentHash.equals(current)) {
+            return current;
+        }
+        String[] previous = new String[1];
+        aliases.compute(cacheKey, (key, previousHash) -> {
+            previous[0] = previousHash;
+            if (!contentHash.equals(previousHash)) {
+                aliasCounts.merge(contentHash, 1, Integer::sum);
+                if (previousHash != null) {
+                    release(previousHash, false);
+                }
+            }
+            return contentHash;
+        });
+        return previous[0];
+    }
+
+    /**
+     * Drops one alias reference to {@code contentHash}; with {@code invalidate}, the last one also drops the
+     * compiled template. A re-pointed alias leaves its old template to eviction, as pinned revisions may share it.
+     */
+    private void release(String contentHash, boolean invalidate) {
+        aliasCounts.computeIfPresent(contentHash, (hash, count) -> {
+            if (count > 1) {
+                return count - 1;
+            }
+            if (invalidate) {
+                templateCache.invalidate(hash);
+            }
+            return null;
+        });
+    }
+
+    private void apply(TemplateSnapshot snapshot, Map<String, Object> params, Writer writer) {
+        long start = System.nanoTime();
+        Template template = getOrCompileTemplate(snapshot);
+        metrics.record(TemplateRenderMetrics.Stage.COMPILE, snapshot, start);
+
+        start = System.nanoTime();
+        String previousLanguage = partialLoader.useLanguage(snapshot.language());
         try {
-            Template template = getOrCompileTemplate(templateId, templateContent);
-            return template.apply(params);
-        } catch (IOException e) {
-            throw ServiceException.of(
-                TemplateServiceExceptionReasonCodes.TEMPLATE_RENDERING_FAILED,
-                "Failed to render template '" + templateId + "': " + e.getMessage()
-            );
+            template.apply(params, writer);
+        } catch (IOException | HandlebarsException e) {
+            throw metrics.error(TemplateServiceExceptionReasonCodes.TEMPLATE_RENDERING_FAILED, snapshot,
+                "Failed to render template '" + snapshot.templateId() + "': " + e.getMessage());
+        } finally {
+            partialLoader.useLanguage(previousLanguage);
         }
+        metrics.record(TemplateRenderMetrics.Stage.APPLY, snapshot, start);
     }
 
-    public void invalidateCache(String templateId) {
-        templateCache.remove(templateId);
+    /**
+     * The template the configured backend renders: the parsed one, or its bytecode-compiled form when the
+     * bytecode backend is enabled and supports every construct the template uses.
+     */
+    private Template backend(Template template) {
+        if (bytecodeRuntime == null) {
+            return template;
+        }
+        BytecodeTemplate compiled = TemplateBytecodeCompiler.compile(template, bytecodeRuntime, this::isHelper);
+        return compiled != null ? compiled : template;
     }
 
-    public void clearCache() {
-        templateCache.clear();
+    private Template getOrCompileTemplate(TemplateSnapshot snapshot) {
+        try {
+            return handlebars.compile(new SnapshotTemplateSource(snapshot));
+        } catch (IOException | HandlebarsException e) {
+            throw metrics.error(TemplateServiceExceptionReasonCodes.TEMPLATE_COMPILATION_FAILED, snapshot,
+                "Failed to compile template '" + snapshot.templateId() + "': " + e.getMessage());
+        }
     }
 
-    private Template getOrCompileTemplate(String templateId, String templateContent) throws IOException {
-        return templateCache.computeIfAbsent(templateId, id -> {
+    private static Cache<String, CompiledTemplate> buildTemplateCache(TemplateServiceProperties.CompiledCache config) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+
+        // The compiled AST grows roughly linearly with the source, so its length is the weight estimate.
+        if (config.getMaxWeight() > 0) {
+            builder.maximumWeight(config.getMaxWeight())
+                    .weigher((String key, CompiledTemplate compiled) -> compiled.weight());
+        } else {
+            builder.maximumSize(config.getMaxEntries());
+        }
+
+        if (config.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(config.getExpireAfterAccess());
+        }
+
+        return builder.build();
+    }
+
+    private record CompiledTemplate(Template template, int weight) {
+    }
+
+    /**
+     * Handlebars {@link TemplateCache} backed by the Caffeine cache. Compiled templates are stored by content
+     * hash, so rows with identical content (untranslated variants, cloned templates) share one AST; the
+     * {@code templateId:language} of each source is recorded as an alias of its current hash. An update,
+     * including one that landed on another replica, arrives as a snapshot with a new hash and simply
+     * re-points the alias.
+     */
+    private final class CompiledTemplateCache implements TemplateCache {
+
+        @Override
+        public Template get(TemplateSource source, Parser parser) throws IOException {
+            if (!(source instanceof SnapshotTemplateSource snapshotSource)) {
+                // Inline content being validated: the caller decides whether to prime() it.
+                return parser.parse(source);
+            }
+            String contentHash = snapshotSource.contentHash();
+            // Pinned revisions never change, so there is no alias to re-point or invalidate later.
+            String previousHash = snapshotSource.pinned() ? null : alias(source.filename(), contentHash);
+
+            try {
+                boolean stale = previousHash != null && !previousHash.equals(contentHash);
+                return templateCache.get(contentHash, key -> parse(source, parser, stale)).template();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public void evict(TemplateSource source) {
+            invalidateCache(source.filename());
+        }
+
+        @Override
+        public void clear() {
+            clearCache();
+        }
+
+        @Override
+        public TemplateCache setReload(boolean reload) {
+            return this;
+        }
+
+        private CompiledTemplate parse(TemplateSource source, Parser parser, boolean stale) {
             try {
-                return handlebars.compileInline(templateContent);
+                String content = source.content(StandardCharsets.UTF_8);
+                CompiledTemplate compiled = new CompiledTemplate(backend(parser.parse(source)), content.length());
+                metrics.recordCompilation(stale);
+                return compiled;
             } catch (IOException e) {
-                throw ServiceException.of(
-                    TemplateServiceExceptionReasonCodes.TEMPLATE_COMPILATION_FAILED,
-                    "Failed to compile template '" + templateId + "': " + e.getMessage()
-                );
+                throw new UncheckedIOException(e);
             }
-        });
+        }
+    }
+
+    /**
+     * Counts the characters written so the output size of streamed renders can be recorded.
+     */
+    private static final class CountingWriter extends Writer {
+
+        private final Writer delegate;
+        private long count;
+
+        private CountingWriter(Writer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            delegate.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            delegate.write(buffer, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            delegate.write(text, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
     }
 }
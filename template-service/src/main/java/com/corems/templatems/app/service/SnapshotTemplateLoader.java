@@ -0,0 +1,79 @@
+package com.corems.templatems.app.service;
+
+import com.github.jknack.handlebars.io.TemplateLoader;
+import com.github.jknack.handlebars.io.TemplateSource;
+
+import java.io.FileNotFoundException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Resolves {@code {{> templateId}}} partials from the snapshot cache, in the language of the template
+ * being rendered and falling back to the default language.
+ * <p>
+ * Partials are addressed by template id and read from memory, so prefix, suffix and charset are fixed;
+ * their setters are no-ops rather than failures because Handlebars configuration code may call them.
+ */
+class SnapshotTemplateLoader implements TemplateLoader {
+
+    private final TemplateSnapshotCache templateSnapshotCache;
+    private final ThreadLocal<String> renderLanguage = new ThreadLocal<>();
+
+    SnapshotTemplateLoader(TemplateSnapshotCache templateSnapshotCache) {
+        this.templateSnapshotCache = templateSnapshotCache;
+    }
+
+    /**
+     * Sets the language partials are resolved in on the current thread and returns the previous one,
+     * which the caller restores once rendering finishes.
+     */
+    String useLanguage(String language) {
+        String previous = renderLanguage.get();
+        if (language == null) {
+            renderLanguage.remove();
+        } else {
+            renderLanguage.set(language);
+        }
+        return previous;
+    }
+
+    @Override
+    public TemplateSource sourceAt(String location) throws FileNotFoundException {
+        String templateId = resolve(location);
+        return templateSnapshotCache.findLocalized(templateId, renderLanguage.get())
+                .map(SnapshotTemplateSource::new)
+                .orElseThrow(() -> new FileNotFoundException(templateId));
+    }
+
+    @Override
+    public String resolve(String location) {
+        return location.startsWith("/") ? location.substring(1) : location;
+    }
+
+    @Override
+    public String getPrefix() {
+        return "";
+    }
+
+    @Override
+    public String getSuffix() {
+        return "";
+    }
+
+    @Override
+    public void setPrefix(String prefix) {
+    }
+
+    @Override
+    public void setSuffix(String suffix) {
+    }
+
+    @Override
+    public void setCharset(Charset charset) {
+    }
+
+    @Override
+    public Charset getCharset() {
+        return StandardCharsets.UTF_8;
+    }
+}
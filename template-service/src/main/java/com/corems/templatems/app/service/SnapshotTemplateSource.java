@@ -0,0 +1,41 @@
+package com.corems.templatems.app.service;
+
+import com.github.jknack.handlebars.io.AbstractTemplateSource;
+
+import java.nio.charset.Charset;
+
+/**
+ * Exposes a {@link TemplateSnapshot} to Handlebars. The filename is the {@code templateId:language} alias;
+ * compiled templates are stored under {@link #contentHash()}.
+ */
+class SnapshotTemplateSource extends AbstractTemplateSource {
+
+    private final TemplateSnapshot snapshot;
+
+    SnapshotTemplateSource(TemplateSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public String content(Charset charset) {
+        return snapshot.content();
+    }
+
+    @Override
+    public String filename() {
+        return snapshot.cacheKey();
+    }
+
+    String contentHash() {
+        return snapshot.contentHash();
+    }
+
+    boolean pinned() {
+        return snapshot.pinned();
+    }
+
+    @Override
+    public long lastModified() {
+        return snapshot.version();
+    }
+}
@@ -0,0 +1,161 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.api.model.BatchRenderItem;
+import com.corems.templatems.api.model.BatchRenderRequest;
+import com.corems.templatems.api.model.BatchRenderResponse;
+import com.corems.templatems.api.model.BatchRenderResult;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+@Slf4j
+@Service
+public class TemplateBatchRenderingService {
+
+    private static final TypeReference<Map<String, Object>> PARAMS_TYPE = new TypeReference<>() {
+    };
+
+    private final TemplateRenderingService templateRenderingService;
+    private final TemplateSnapshotCache templateSnapshotCache;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final ObjectMapper objectMapper;
+    private final Semaphore renderPermits;
+    private final int streamWindow;
+
+    public TemplateBatchRenderingService(TemplateRenderingService templateRenderingService,
+                                         TemplateSnapshotCache templateSnapshotCache,
+                                         AsyncTaskExecutor applicationTaskExecutor,
+                                         ObjectMapper objectMapper,
+                                         TemplateServiceProperties properties) {
+        this.templateRenderingService = templateRenderingService;
+        this.templateSnapshotCache = templateSnapshotCache;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.objectMapper = objectMapper;
+        this.renderPermits = new Semaphore(properties.getRender().getBatch().getParallelism());
+        this.streamWindow = properties.getRender().getStream().getWindow();
+    }
+
+    public BatchRenderResponse renderBatch(BatchRenderRequest request) {
+        List<BatchRenderItem> items = request.getItems();
+
+        Map<String, Optional<TemplateSnapshot>> snapshots = new HashMap<>();
+        List<CompletableFuture<BatchRenderResult>> futures = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            int index = i;
+            BatchRenderItem item = items.get(i);
+            String language = templateRenderingService.resolveLanguage(item.getLanguage());
+            Optional<TemplateSnapshot> snapshot = snapshots.computeIfAbsent(
+                TemplateSnapshot.cacheKey(item.getTemplateId(), language, item.getRevision()),
+                key -> templateSnapshotCache.find(item.getTemplateId(), language, item.getRevision()));
+
+            futures.add(CompletableFuture.supplyAsync(
+                () -> renderItem(index, item.getTemplateId(), language, item.getRevision(), snapshot, item.getParams()),
+                applicationTaskExecutor));
+        }
+
+        List<BatchRenderResult> results = futures.stream().map(CompletableFuture::join).toList();
+        int succeeded = (int) results.stream().filter(BatchRenderResult::getSuccess).count();
+
+        log.debug("Rendered batch of {} items ({} failed) across {} templates", results.size(), results.size() - succeeded, snapshots.size());
+
+        return new BatchRenderResponse()
+                .results(results)
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded);
+    }
+
+    public void renderStream(String templateId, String language, Integer revision, InputStream input, OutputStream output) throws IOException {
+        String effectiveLanguage = templateRenderingService.resolveLanguage(language);
+        Optional<TemplateSnapshot> snapshot = Optional.of(templateSnapshotCache.get(templateId, effectiveLanguage, revision));
+
+        // Records are only read while fewer than streamWindow renders are pending, and results are written
+        // in input order as soon as the oldest one completes, so a slow client also throttles the reader.
+        Deque<CompletableFuture<BatchRenderResult>> pending = new ArrayDeque<>(streamWindow);
+        int index = 0;
+        try (MappingIterator<Map<String, Object>> records = objectMapper.readerFor(PARAMS_TYPE).readValues(input)) {
+            while (records.hasNextValue()) {
+                int recordIndex = index;
+                Map<String, Object> params = records.nextValue();
+                index++;
+                pending.addLast(CompletableFuture.supplyAsync(
+                    () -> renderItem(recordIndex, templateId, effectiveLanguage, revision, snapshot, params), applicationTaskExecutor));
+
+                if (pending.size() >= streamWindow) {
+                    writeLine(pending.removeFirst().join(), output, pending);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            drain(pending, output);
+            writeLine(new BatchRenderResult()
+                    .index(index)
+                    .templateId(templateId)
+                    .language(effectiveLanguage)
+                    .success(false)
+                    .error("Malformed NDJSON record: " + e.getOriginalMessage()), output, pending);
+            return;
+        }
+
+        drain(pending, output);
+    }
+
+    private void drain(Deque<CompletableFuture<BatchRenderResult>> pending, OutputStream output) throws IOException {
+        while (!pending.isEmpty()) {
+            writeLine(pending.removeFirst().join(), output, pending);
+        }
+    }
+
+    private void writeLine(BatchRenderResult result, OutputStream output, Deque<CompletableFuture<BatchRenderResult>> pending) throws IOException {
+        output.write(objectMapper.writeValueAsBytes(result));
+        output.write('\n');
+        if (pending.isEmpty() || !pending.peekFirst().isDone()) {
+            output.flush();
+        }
+    }
+
+    private BatchRenderResult renderItem(int index, String templateId, String language, Integer revision,
+                                         Optional<TemplateSnapshot> snapshot, Map<String, Object> params) {
+        BatchRenderResult result = new BatchRenderResult()
+                .index(index)
+                .templateId(templateId)
+                .language(language);
+
+        if (snapshot.isEmpty()) {
+            return result.success(false).error(TemplateSnapshotCache.notFoundMessage(templateId, language, revision));
+        }
+
+        try {
+            renderPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return result.success(false).error("Rendering interrupted");
+        }
+
+        try {
+            return result.success(true)
+                    .revision(snapshot.get().revision())
+                    .html(templateRenderingService.render(snapshot.get(), params));
+        } catch (RuntimeException e) {
+            return result.success(false).error(e.getMessage());
+        } finally {
+            renderPermits.release();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.security.SecurityUtils;
+import com.corems.templatems.api.model.BulkUpsertResult;
+import com.corems.templatems.api.model.BulkUpsertStatus;
+import com.corems.templatems.api.model.BulkUpsertTemplatesRequest;
+import com.corems.templatems.api.model.BulkUpsertTemplatesResponse;
+import com.corems.templatems.api.model.CreateTemplateRequest;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.repository.TemplateBulkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Imports many templates at once: items are validated and compiled in parallel, then all valid items are
+ * written in one transaction with a multi-row upsert per chunk, and caches are invalidated once it commits.
+ */
+@Slf4j
+@Service
+public class TemplateBulkUpsertService {
+
+    private final TemplateValidator templateValidator;
+    private final TemplateBulkRepository templateBulkRepository;
+    private final TemplateInvalidationBus templateInvalidationBus;
+    private final TransactionTemplate transaction;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final Semaphore validationPermits;
+    private final TemplateServiceProperties.Bulk config;
+
+    @Value("${template-service.default-language:en}")
+    private String defaultLanguage;
+
+    public TemplateBulkUpsertService(TemplateValidator templateValidator,
+                                     TemplateBulkRepository templateBulkRepository,
+                                     TemplateInvalidationBus templateInvalidationBus,
+                                     PlatformTransactionManager transactionManager,
+                                     AsyncTaskExecutor applicationTaskExecutor,
+                                     TemplateServiceProperties properties) {
+        this.templateValidator = templateValidator;
+        this.templateBulkRepository = templateBulkRepository;
+        this.templateInvalidationBus = templateInvalidationBus;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.config = properties.getBulk();
+        this.validationPermits = new Semaphore(config.getParallelism());
+    }
+
+    public BulkUpsertTemplatesResponse upsertTemplates(BulkUpsertTemplatesRequest request) {
+        List<CreateTemplateRequest> items = request.getItems();
+        UUID currentUserId = SecurityUtils.getUserPrincipal().getUserId();
+        long start = System.nanoTime();
+
+        List<Validated> validated = validateAll(items);
+
+        List<BulkUpsertResult> results = new ArrayList<>(validated.size());
+        List<TemplateBulkRepository.TemplateRow> rows = new ArrayList<>();
+        Map<String, BulkUpsertResult> pending = new HashMap<>();
+        for (Validated item : validated) {
+            results.add(item.result());
+            if (item.row() != null) {
+                rows.add(item.row());
+                pending.put(TemplateSnapshot.cacheKey(item.row().templateId(), item.row().language()), item.result());
+            }
+        }
+
+        List<TemplateBulkRepository.UpsertedTemplate> changed = rows.isEmpty()
+                ? List.of()
+                : transaction.execute(status -> write(rows, currentUserId));
+
+        for (TemplateBulkRepository.UpsertedTemplate upserted : changed) {
+            pending.get(TemplateSnapshot.cacheKey(upserted.templateId(), upserted.language()))
+                    .status(upserted.created() ? BulkUpsertStatus.CREATED : BulkUpsertStatus.UPDATED)
+                    .id(upserted.uuid())
+                    .version(upserted.version())
+                    .revision(upserted.revision());
+        }
+
+        BulkUpsertTemplatesResponse response = new BulkUpsertTemplatesResponse()
+                .results(results)
+                .created(count(results, BulkUpsertStatus.CREATED))
+                .updated(count(results, BulkUpsertStatus.UPDATED))
+                .unchanged(count(results, BulkUpsertStatus.UNCHANGED))
+                .failed(count(results, BulkUpsertStatus.FAILED));
+
+        log.info("Bulk upsert of {} templates by user {} in {} ms: {} created, {} updated, {} unchanged, {} failed",
+            items.size(), currentUserId, (System.nanoTime() - start) / 1_000_000,
+            response.getCreated(), response.getUpdated(), response.getUnchanged(), response.getFailed());
+
+        return response;
+    }
+
+    /**
+     * Validates every item; valid items come back {@code UNCHANGED} with their row until the write reports
+     * otherwise. Only the first occurrence of a {@code templateId} and language is kept.
+     */
+    private List<Validated> validateAll(List<CreateTemplateRequest> items) {
+        List<CompletableFuture<Validated>> futures = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            int index = i;
+            futures.add(CompletableFuture.supplyAsync(() -> validate(index, items.get(index)), applicationTaskExecutor));
+        }
+
+        Map<String, Integer> firstIndex = new HashMap<>();
+        List<Validated> validated = new ArrayList<>(items.size());
+        for (CompletableFuture<Validated> future : futures) {
+            Validated item = future.join();
+            BulkUpsertResult result = item.result();
+            if (item.row() != null) {
+                Integer first = firstIndex.putIfAbsent(TemplateSnapshot.cacheKey(result.getTemplateId(), result.getLanguage()), result.getIndex());
+                if (first != null) {
+                    result.status(BulkUpsertStatus.FAILED).error("Duplicate of item " + first);
+                    item = new Validated(result, null);
+                }
+            }
+            validated.add(item);
+        }
+        return validated;
+    }
+
+    private Validated validate(int index, CreateTemplateRequest item) {
+        String language = item.getLanguage() != null ? item.getLanguage() : defaultLanguage;
+        BulkUpsertResult result = new BulkUpsertResult()
+                .index(index)
+                .templateId(item.getTemplateId())
+                .language(language);
+
+        // Compilation is CPU-bound, so the permits bound it to the cores across all concurrent imports.
+        try {
+            validationPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Validated(result.status(BulkUpsertStatus.FAILED).error("Validation interrupted"), null);
+        }
+
+        try {
+            TemplateValidator.Analysis analysis = templateValidator.analyze(item.getContent());
+            Map<String, Object> paramSchema = TemplateManagementService.convertParamSchema(item.getParamSchema());
+            if (paramSchema == null || paramSchema.isEmpty()) {
+                paramSchema = analysis.parameters();
+            }
+            templateValidator.validateParamSchema(paramSchema);
+            return new Validated(result.status(BulkUpsertStatus.UNCHANGED), new TemplateBulkRepository.TemplateRow(
+                item.getTemplateId(), language, item.getName(), item.getDescription(), item.getContent(),
+                TemplateEntity.sha256(item.getContent()), item.getCategory(), paramSchema));
+        } catch (RuntimeException e) {
+            return new Validated(result.status(BulkUpsertStatus.FAILED).error(e.getMessage()), null);
+        } finally {
+            validationPermits.release();
+        }
+    }
+
+    private List<TemplateBulkRepository.UpsertedTemplate> write(List<TemplateBulkRepository.TemplateRow> rows, UUID currentUserId) {
+        Instant now = Instant.now();
+        List<TemplateBulkRepository.UpsertedTemplate> changed = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += config.getChunkSize()) {
+            List<TemplateBulkRepository.TemplateRow> chunk = rows.subList(from, Math.min(from + config.getChunkSize(), rows.size()));
+            changed.addAll(templateBulkRepository.upsert(chunk, currentUserId, now));
+        }
+
+        // Published inside the transaction, so they are delivered once it commits.
+        if (changed.size() > config.getMaxInvalidations()) {
+            templateInvalidationBus.publish(TemplateInvalidation.all());
+        } else {
+            for (TemplateBulkRepository.UpsertedTemplate upserted : changed) {
+                templateInvalidationBus.publish(new TemplateInvalidation(upserted.templateId(), upserted.language(), upserted.version()));
+            }
+        }
+        return changed;
+    }
+
+    private static int count(List<BulkUpsertResult> results, BulkUpsertStatus status) {
+        return (int) results.stream().filter(result -> result.getStatus() == status).count();
+    }
+
+    /**
+     * Result of one item, with the row to write if it passed validation.
+     */
+    private record Validated(BulkUpsertResult result, TemplateBulkRepository.TemplateRow row) {
+    }
+}
@@ -0,0 +1,380 @@
+package com.corems.templatems.app.service;
+
+import com.github.jknack.handlebars.TagType;
+import com.github.jknack.handlebars.Template;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Compiles a parsed template into a hidden class whose render method is straight-line code: text is written
+ * directly, variables become lookups over the param maps, {@code #if}/{@code #unless} become branches and
+ * {@code #each} a loop, so rendering does no per-node dispatch, {@code Context} building or value-resolver
+ * chain walk. Supported are text, plain variables ({@code {{x}}}, {@code {{{x}}}}, {@code {{&x}}}, with
+ * {@code ../}, {@code this} and {@code @index}/{@code @key}/{@code @first}/{@code @last}), {@code #if},
+ * {@code #unless}, {@code else if}, {@code #each}, {@code #with} and partials by name. Templates using anything
+ * else (helpers, sub-expressions, block params, hash arguments, sections, decorators, partial blocks or
+ * partials with arguments) are left to the interpreter.
+ * <p>
+ * Generated classes are hidden classes, unloaded once the compiled cache drops their template.
+ */
+@Slf4j
+final class TemplateBytecodeCompiler implements Opcodes {
+
+    private static final String CLASS_NAME = Type.getInternalName(TemplateBytecodeCompiler.class)
+        .replace("TemplateBytecodeCompiler", "GeneratedTemplate");
+    private static final String OBJECT = Type.getInternalName(Object.class);
+    private static final String STRING = Type.getInternalName(String.class);
+    private static final String WRITER = Type.getInternalName(Writer.class);
+    private static final String ITERATOR = Type.getInternalName(Iterator.class);
+    private static final String SCOPE = Type.getInternalName(RenderScope.class);
+    private static final String RUNTIME = Type.getInternalName(BytecodeRuntime.class);
+    private static final String PATH = Type.getInternalName(BytecodeRuntime.Path.class);
+    private static final String RENDER = Type.getMethodDescriptor(Type.VOID_TYPE,
+        Type.getType(RenderScope.class), Type.getType(Writer.class), Type.getType(BytecodeRuntime.class));
+    private static final String WRITE_PATH = "(L" + WRITER + ";L" + SCOPE + ";L" + PATH + ";)V";
+    private static final Set<String> DATA_VARIABLES = Set.of("index", "key", "first", "last");
+
+    private static final int SCOPE_SLOT = 1;
+    private static final int OUT_SLOT = 2;
+    private static final int RUNTIME_SLOT = 3;
+    private static final int CONSTANTS_SLOT = 4;
+
+    private final HandlebarsAst ast = HandlebarsAst.get();
+    private final Predicate<String> isHelper;
+    private final List<Object> constants = new ArrayList<>();
+
+    private TemplateBytecodeCompiler(Predicate<String> isHelper) {
+        this.isHelper = isHelper;
+    }
+
+    /**
+     * Returns the compiled template, or {@code null} if it uses constructs only the interpreter supports.
+     */
+    static BytecodeTemplate compile(Template template, BytecodeRuntime runtime, Predicate<String> isHelper) {
+        TemplateBytecodeCompiler compiler = new TemplateBytecodeCompiler(isHelper);
+        if (compiler.ast == null) {
+            return null;
+        }
+        try {
+            List<Op> plan = new ArrayList<>();
+            compiler.plan(template, plan);
+            byte[] bytecode = compiler.generate(plan);
+            Class<?> generated = MethodHandles.lookup().defineHiddenClass(bytecode, true).lookupClass();
+            BytecodeTemplate.Renderer renderer = (BytecodeTemplate.Renderer) generated
+                .getDeclaredConstructor(Object[].class).newInstance((Object) compiler.constants.toArray());
+            return new BytecodeTemplate(template, renderer, runtime);
+        } catch (Unsupported e) {
+            log.debug("Template '{}' stays on the interpreter: {}", template.filename(), e.getMessage());
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            log.warn("Failed to generate bytecode for template '{}', using the interpreter", template.filename(), e);
+        }
+        return null;
+    }
+
+    private sealed interface Op {
+    }
+
+    private record Text(int text) implements Op {
+    }
+
+    private record Output(int path, boolean escape) implements Op {
+    }
+
+    private record Conditional(int path, boolean negate, List<Op> body, List<Op> inverse) implements Op {
+    }
+
+    private record Each(int path, List<Op> body, List<Op> inverse) implements Op {
+    }
+
+    private record With(int path, List<Op> body, List<Op> inverse) implements Op {
+    }
+
+    private record Partial(int name) implements Op {
+    }
+
+    private static final class Unsupported extends Exception {
+
+        private Unsupported(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private void plan(Template node, List<Op> ops) throws Unsupported {
+        if (node == null || node == Template.EMPTY) {
+            return;
+        }
+        node = ast.unwrap(node);
+        switch (ast.kind(node)) {
+            case LIST -> {
+                for (Template child : ast.children(node)) {
+                    plan(child, ops);
+                }
+            }
+            case TEXT -> {
+                String text = ast.text(node);
+                if (!text.isEmpty()) {
+                    ops.add(new Text(constant(text)));
+                }
+            }
+            case VARIABLE -> planVariable(node, ops);
+            case BLOCK -> planBlock(node, ops);
+            case PARTIAL -> planPartial(node, ops);
+            default -> throw new Unsupported(node.getClass().getSimpleName() + " " + node.text());
+        }
+    }
+
+    private void planVariable(Template variable, List<Op> ops) throws Unsupported {
+        String name = ast.name(variable);
+        TagType type = ast.variableType(variable);
+        if (isHelper.test(name) || !ast.params(variable).isEmpty() || !ast.hash(variable).isEmpty()) {
+            throw new Unsupported("helper call " + variable.text());
+        }
+        if (type != TagType.VAR && type != TagType.TRIPLE_VAR && type != TagType.AMP_VAR) {
+            throw new Unsupported(type + " " + variable.text());
+        }
+        ops.add(new Output(constant(path(name)), type == TagType.VAR));
+    }
+
+    private void planBlock(Template block, List<Op> ops) throws Unsupported {
+        String name = ast.name(block);
+        List<Object> params = ast.params(block);
+        if (ast.inverted(block) || !ast.blockParams(block).isEmpty() || !ast.hash(block).isEmpty()
+                || params.size() != 1 || !ast.isReference(params.getFirst())) {
+            throw new Unsupported("block " + name + " with arguments or block params");
+        }
+        int path = constant(path(params.getFirst().toString()));
+        List<Op> body = new ArrayList<>();
+        List<Op> inverse = new ArrayList<>();
+        plan(ast.body(block), body);
+        plan(ast.inverse(block), inverse);
+
+        switch (name) {
+            case "if", "unless" -> ops.add(new Conditional(path, "unless".equals(name), body, inverse));
+            case "each" -> ops.add(new Each(path, body, inverse));
+            case "with" -> ops.add(new With(path, body, inverse));
+            default -> throw new Unsupported("block helper or section " + name);
+        }
+    }
+
+    private void planPartial(Template partial, List<Op> ops) throws Unsupported {
+        Template path = ast.partialPath(partial);
+        String indent = ast.partialIndent(partial);
+        if (ast.partialBlock(partial) != null || ast.partialContext(partial) != null
+                || !ast.params(partial).isEmpty() || !ast.hash(partial).isEmpty()
+                || (indent != null && !indent.isEmpty()) || ast.kind(ast.unwrap(path)) != HandlebarsAst.Kind.TEXT) {
+            throw new Unsupported("partial with arguments, indentation or a dynamic name " + partial.text());
+        }
+        ops.add(new Partial(constant(ast.text(ast.unwrap(path)))));
+    }
+
+    private static BytecodeRuntime.Path path(String name) throws Unsupported {
+        if (name.equals("this") || name.equals(".")) {
+            return new BytecodeRuntime.Path(BytecodeRuntime.Path.Kind.THIS, 0, new String[0]);
+        }
+        if (name.startsWith("@")) {
+            if (!DATA_VARIABLES.contains(name.substring(1))) {
+                throw new Unsupported("data variable " + name);
+            }
+            return new BytecodeRuntime.Path(BytecodeRuntime.Path.Kind.DATA, 0, new String[] {name.substring(1)});
+        }
+
+        int ups = 0;
+        String rest = name;
+        while (rest.startsWith("../")) {
+            rest = rest.substring("../".length());
+            ups++;
+        }
+        if (rest.equals("this")) {
+            return new BytecodeRuntime.Path(BytecodeRuntime.Path.Kind.THIS, ups, new String[0]);
+        }
+        if (rest.isEmpty() || rest.startsWith("this") || rest.startsWith(".") || rest.startsWith("@")) {
+            throw new Unsupported("path " + name);
+        }
+
+        String[] segments = rest.split("[./]", -1);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.startsWith("[") && segment.endsWith("]") && segment.length() > 2) {
+                segments[i] = segment.substring(1, segment.length() - 1);
+            } else if (segment.isEmpty() || segment.contains("[") || segment.contains("]")) {
+                throw new Unsupported("path " + name);
+            }
+        }
+        return new BytecodeRuntime.Path(BytecodeRuntime.Path.Kind.PROPERTY, ups, segments);
+    }
+
+    private int constant(Object value) {
+        constants.add(value);
+        return constants.size() - 1;
+    }
+
+    private byte[] generate(List<Op> plan) {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // Every local slot holds a single type, so frames never merge two different classes.
+                return OBJECT;
+            }
+        };
+        classWriter.visit(V17, ACC_FINAL | ACC_SUPER, CLASS_NAME, null, OBJECT,
+            new String[] {Type.getInternalName(BytecodeTemplate.Renderer.class)});
+        classWriter.visitField(ACC_PRIVATE | ACC_FINAL, "constants", "[Ljava/lang/Object;", null, null).visitEnd();
+
+        MethodVisitor constructor = classWriter.visitMethod(0, "<init>", "([Ljava/lang/Object;)V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ALOAD, 1);
+        constructor.visitFieldInsn(PUTFIELD, CLASS_NAME, "constants", "[Ljava/lang/Object;");
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor render = classWriter.visitMethod(ACC_PUBLIC, "render", RENDER, null,
+            new String[] {Type.getInternalName(IOException.class)});
+        render.visitCode();
+        render.visitVarInsn(ALOAD, 0);
+        render.visitFieldInsn(GETFIELD, CLASS_NAME, "constants", "[Ljava/lang/Object;");
+        render.visitVarInsn(ASTORE, CONSTANTS_SLOT);
+        new Emitter(render).emit(plan, SCOPE_SLOT);
+        render.visitInsn(RETURN);
+        render.visitMaxs(0, 0);
+        render.visitEnd();
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    private static final class Emitter {
+
+        private final MethodVisitor method;
+        private int nextSlot = CONSTANTS_SLOT + 1;
+
+        private Emitter(MethodVisitor method) {
+            this.method = method;
+        }
+
+        private void emit(List<Op> ops, int scope) {
+            for (Op op : ops) {
+                switch (op) {
+                    case Text text -> {
+                        method.visitVarInsn(ALOAD, OUT_SLOT);
+                        constant(text.text(), STRING);
+                        method.visitMethodInsn(INVOKEVIRTUAL, WRITER, "write", "(L" + STRING + ";)V", false);
+                    }
+                    case Output output -> {
+                        method.visitVarInsn(ALOAD, RUNTIME_SLOT);
+                        method.visitVarInsn(ALOAD, OUT_SLOT);
+                        method.visitVarInsn(ALOAD, scope);
+                        constant(output.path(), PATH);
+                        method.visitMethodInsn(INVOKEVIRTUAL, RUNTIME, output.escape() ? "write" : "writeRaw", WRITE_PATH, false);
+                    }
+                    case Conditional conditional -> emitConditional(conditional, scope);
+                    case Each each -> emitEach(each, scope);
+                    case With with -> emitWith(with, scope);
+                    case Partial partial -> {
+                        method.visitVarInsn(ALOAD, RUNTIME_SLOT);
+                        method.visitVarInsn(ALOAD, scope);
+                        method.visitVarInsn(ALOAD, OUT_SLOT);
+                        constant(partial.name(), STRING);
+                        method.visitMethodInsn(INVOKEVIRTUAL, RUNTIME, "partial",
+                            "(L" + SCOPE + ";L" + WRITER + ";L" + STRING + ";)V", false);
+                    }
+                }
+            }
+        }
+
+        private void emitConditional(Conditional conditional, int scope) {
+            Label otherwise = new Label();
+            Label end = new Label();
+            lookup(scope, conditional.path(), "truthy", "Z");
+            method.visitJumpInsn(conditional.negate() ? IFNE : IFEQ, otherwise);
+            emit(conditional.body(), scope);
+            method.visitJumpInsn(GOTO, end);
+            method.visitLabel(otherwise);
+            emit(conditional.inverse(), scope);
+            method.visitLabel(end);
+        }
+
+        private void emitWith(With with, int scope) {
+            Label otherwise = new Label();
+            Label end = new Label();
+            int inner = nextSlot++;
+            lookup(scope, with.path(), "with", "L" + SCOPE + ";");
+            method.visitVarInsn(ASTORE, inner);
+            method.visitVarInsn(ALOAD, inner);
+            method.visitJumpInsn(IFNULL, otherwise);
+            emit(with.body(), inner);
+            method.visitJumpInsn(GOTO, end);
+            method.visitLabel(otherwise);
+            emit(with.inverse(), scope);
+            method.visitLabel(end);
+        }
+
+        private void emitEach(Each each, int scope) {
+            Label loop = new Label();
+            Label otherwise = new Label();
+            Label end = new Label();
+            int items = nextSlot++;
+            int index = nextSlot++;
+            int item = nextSlot++;
+
+            lookup(scope, each.path(), "iterate", "L" + ITERATOR + ";");
+            method.visitVarInsn(ASTORE, items);
+            method.visitVarInsn(ALOAD, items);
+            method.visitJumpInsn(IFNULL, otherwise);
+            method.visitInsn(ICONST_0);
+            method.visitVarInsn(ISTORE, index);
+
+            method.visitLabel(loop);
+            method.visitVarInsn(ALOAD, items);
+            method.visitMethodInsn(INVOKEINTERFACE, ITERATOR, "hasNext", "()Z", true);
+            method.visitJumpInsn(IFEQ, end);
+            method.visitVarInsn(ALOAD, RUNTIME_SLOT);
+            method.visitVarInsn(ALOAD, scope);
+            method.visitVarInsn(ALOAD, items);
+            method.visitVarInsn(ILOAD, index);
+            method.visitMethodInsn(INVOKEVIRTUAL, RUNTIME, "next", "(L" + SCOPE + ";L" + ITERATOR + ";I)L" + SCOPE + ";", false);
+            method.visitVarInsn(ASTORE, item);
+            emit(each.body(), item);
+            method.visitIincInsn(index, 1);
+            method.visitJumpInsn(GOTO, loop);
+
+            method.visitLabel(otherwise);
+            emit(each.inverse(), scope);
+            method.visitLabel(end);
+        }
+
+        private void lookup(int scope, int path, String operation, String returnType) {
+            method.visitVarInsn(ALOAD, RUNTIME_SLOT);
+            method.visitVarInsn(ALOAD, scope);
+            constant(path, PATH);
+            method.visitMethodInsn(INVOKEVIRTUAL, RUNTIME, operation, "(L" + SCOPE + ";L" + PATH + ";)" + returnType, false);
+        }
+
+        private void constant(int index, String type) {
+            method.visitVarInsn(ALOAD, CONSTANTS_SLOT);
+            if (index <= Short.MAX_VALUE) {
+                method.visitIntInsn(SIPUSH, index);
+            } else {
+                method.visitLdcInsn(index);
+            }
+            method.visitInsn(AALOAD);
+            method.visitTypeInsn(CHECKCAST, type);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.repository.TemplateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Loads and compiles templates before the instance starts taking traffic. Application runners complete
+ * before Spring Boot switches readiness to {@code ACCEPTING_TRAFFIC}, and this indicator keeps
+ * {@code /actuator/health} {@code OUT_OF_SERVICE} until the warm-up has finished.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "template-service.cache.warmup", name = "enabled", havingValue = "true")
+public class TemplateCacheWarmer implements ApplicationRunner, HealthIndicator {
+
+    private static final int PROGRESS_LOG_INTERVAL = 1000;
+    private static final Duration SUBSCRIBE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final TemplateRepository templateRepository;
+    private final TemplateSnapshotCache templateSnapshotCache;
+    private final TemplateInvalidationBus templateInvalidationBus;
+    private final RenderingEngine renderingEngine;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TemplateServiceProperties.Warmup config;
+
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicInteger compiled = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final Timer duration;
+
+    private volatile boolean finished;
+    private volatile Duration elapsed;
+    private volatile String error;
+
+    public TemplateCacheWarmer(TemplateRepository templateRepository,
+                               TemplateSnapshotCache templateSnapshotCache,
+                               TemplateInvalidationBus templateInvalidationBus,
+                               RenderingEngine renderingEngine,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               TemplateServiceProperties properties) {
+        this.templateRepository = templateRepository;
+        this.templateSnapshotCache = templateSnapshotCache;
+        this.templateInvalidationBus = templateInvalidationBus;
+        this.renderingEngine = renderingEngine;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.config = properties.getCache().getWarmup();
+
+        this.duration = Timer.builder("templates.warmup.duration")
+                .description("Time spent loading and compiling templates at startup")
+                .register(meterRegistry);
+        Gauge.builder("templates.warmup.loaded", loaded, AtomicInteger::get)
+                .description("Templates loaded by the startup warm-up")
+                .register(meterRegistry);
+        Gauge.builder("templates.warmup.compiled", compiled, AtomicInteger::get)
+                .description("Templates compiled by the startup warm-up")
+                .register(meterRegistry);
+        Gauge.builder("templates.warmup.failed", failed, AtomicInteger::get)
+                .description("Templates that failed to compile during the startup warm-up")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Warming up template caches (categories: {}, languages: {}, parallelism: {})",
+            config.getCategories().isEmpty() ? "all" : config.getCategories(),
+            config.getLanguages().isEmpty() ? "all" : config.getLanguages(),
+            config.getParallelism());
+
+        long start = System.nanoTime();
+        awaitSubscribed();
+        // Rows read after this point may already be stale when they are primed; the cache rejects those.
+        long generation = templateSnapshotCache.generation();
+        // Compilation is CPU-bound, so it gets a dedicated pool sized to the cores rather than virtual threads.
+        ExecutorService compilers = Executors.newFixedThreadPool(config.getParallelism());
+        try {
+            List<CompletableFuture<Void>> compilations = readOnlyTransaction.execute(status -> submitAll(compilers, generation));
+            CompletableFuture.allOf(compilations.toArray(CompletableFuture[]::new)).join();
+        } catch (RuntimeException e) {
+            // Templates not warmed up are still loaded on first use, so this must not keep the instance out of service.
+            error = e.getMessage();
+            log.error("Template cache warm-up aborted after {} templates", loaded.get(), e);
+        } finally {
+            compilers.shutdownNow();
+            elapsed = Duration.ofNanos(System.nanoTime() - start);
+            duration.record(elapsed);
+            finished = true;
+        }
+
+        log.info("Template cache warm-up finished in {} ms: {} loaded, {} compiled, {} failed, {} skipped",
+            elapsed.toMillis(), loaded.get(), compiled.get(), failed.get(), skipped.get());
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = finished ? Health.up() : Health.outOfService();
+        health.withDetail("loaded", loaded.get())
+                .withDetail("compiled", compiled.get())
+                .withDetail("failed", failed.get())
+                .withDetail("skipped", skipped.get());
+        if (elapsed != null) {
+            health.withDetail("durationMs", elapsed.toMillis());
+        }
+        if (error != null) {
+            health.withDetail("error", error);
+        }
+        return health.build();
+    }
+
+    /**
+     * Waits for the invalidation bus before reading, otherwise a change committed between the read and the
+     * subscription would never evict the snapshot primed from that read.
+     */
+    private void awaitSubscribed() {
+        try {
+            if (!templateInvalidationBus.awaitSubscribed(SUBSCRIBE_TIMEOUT)) {
+                log.warn("Template invalidations not subscribed after {}, warming up anyway", SUBSCRIBE_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<CompletableFuture<Void>> submitAll(ExecutorService compilers, long generation) {
+        List<CompletableFuture<Void>> compilations = new ArrayList<>();
+        try (Stream<TemplateEntity> rows = templateRepository.streamLive(config.getCategories(), config.getLanguages())) {
+            rows.forEach(entity -> {
+                // Rows are only needed as snapshots; detaching keeps the persistence context from growing with the table.
+                entityManager.detach(entity);
+                if (loaded.incrementAndGet() % PROGRESS_LOG_INTERVAL == 0) {
+                    log.info("Template cache warm-up: {} loaded, {} compiled", loaded.get(), compiled.get());
+                }
+
+                TemplateSnapshot snapshot;
+                try {
+                    snapshot = TemplateSnapshot.of(entity);
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    log.warn("Skipping template: {} (language: {}): {}", entity.getTemplateId(), entity.getLanguage(), e.getMessage());
+                    return;
+                }
+
+                // Skipped when a request loaded it first or it may have changed since the read; either way the
+                // current row is loaded on first use.
+                if (!templateSnapshotCache.prime(snapshot, generation)) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                compilations.add(CompletableFuture.runAsync(() -> compile(snapshot), compilers));
+            });
+        }
+        return compilations;
+    }
+
+    private void compile(TemplateSnapshot snapshot) {
+        try {
+            renderingEngine.precompile(snapshot);
+            compiled.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Failed to precompile template: {} (language: {}): {}", snapshot.templateId(), snapshot.language(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.exception.ServiceException;
+import com.corems.templatems.app.exception.TemplateServiceExceptionReasonCodes;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Continuation token for {@code scrollTemplates}: the {@code (updatedAt, id)} key of the last template
+ * returned plus the number of the next page. Encoded as URL-safe Base64 so clients treat it as opaque.
+ */
+record TemplateCursor(Instant updatedAt, long id, int page) {
+
+    static final TemplateCursor FIRST = new TemplateCursor(null, 0, 1);
+
+    TemplateCursor next(Instant lastUpdatedAt, long lastId) {
+        return new TemplateCursor(lastUpdatedAt, lastId, page + 1);
+    }
+
+    /**
+     * Rows strictly after this cursor in {@code (updatedAt, id)} order.
+     */
+    <T> Specification<T> after() {
+        if (updatedAt == null) {
+            return (root, query, cb) -> cb.conjunction();
+        }
+        return (root, query, cb) -> cb.or(
+            cb.greaterThan(root.get("updatedAt"), updatedAt),
+            cb.and(cb.equal(root.get("updatedAt"), updatedAt), cb.greaterThan(root.get("id"), id)));
+    }
+
+    String encode() {
+        String token = page + ":" + updatedAt.getEpochSecond() + ":" + updatedAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TemplateCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Expected 4 parts, got " + parts.length);
+            }
+            return new TemplateCursor(Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2])),
+                Long.parseLong(parts[3]), Integer.parseInt(parts[0]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw ServiceException.of(TemplateServiceExceptionReasonCodes.INVALID_CURSOR, "Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.app.entity.TemplateEntity;
+
+/**
+ * Application event telling in-memory caches that a template row changed. A {@code null} templateId
+ * means every cached template must be dropped, e.g. after notifications may have been missed.
+ */
+public record TemplateInvalidation(String templateId, String language, long version) {
+
+    private static final TemplateInvalidation ALL = new TemplateInvalidation(null, null, 0L);
+
+    public static TemplateInvalidation of(TemplateEntity entity) {
+        return of(entity.getTemplateId(), entity.getLanguage(), entity);
+    }
+
+    public static TemplateInvalidation of(String templateId, String language, TemplateEntity entity) {
+        return new TemplateInvalidation(templateId, language, entity.getVersion() != null ? entity.getVersion() : 0L);
+    }
+
+    public static TemplateInvalidation all() {
+        return ALL;
+    }
+
+    public boolean isGlobal() {
+        return templateId == null;
+    }
+
+    public String cacheKey() {
+        return TemplateSnapshot.cacheKey(templateId, language);
+    }
+}
@@ -0,0 +1,21 @@
+package com.corems.templatems.app.service;
+
+import java.time.Duration;
+
+/**
+ * Propagates template changes to the in-memory caches of every service replica.
+ * Implementations deliver the {@link TemplateInvalidation} as an application event once the
+ * surrounding transaction commits.
+ */
+public interface TemplateInvalidationBus {
+
+    void publish(TemplateInvalidation invalidation);
+
+    /**
+     * Waits until invalidations published by other replicas are being received, so that a bulk read started
+     * afterwards cannot miss one. Returns {@code false} if that did not happen within {@code timeout}.
+     */
+    default boolean awaitSubscribed(Duration timeout) throws InterruptedException {
+        return true;
+    }
+}
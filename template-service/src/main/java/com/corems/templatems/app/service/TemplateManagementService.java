@@ -3,37 +3,63 @@ package com.corems.templatems.app.service;
 import com.corems.common.exception.ServiceException;
 import com.corems.common.security.SecurityUtils;
 import com.corems.common.security.UserPrincipal;
+import com.corems.common.utils.db.repo.SearchableRepository;
 import com.corems.common.utils.db.utils.QueryParams;
 import com.corems.templatems.app.exception.TemplateServiceExceptionReasonCodes;
 import com.corems.templatems.api.model.CreateTemplateRequest;
+import com.corems.templatems.api.model.SetTemplateRevisionRequest;
+import com.corems.templatems.api.model.TemplateCategory;
 import com.corems.templatems.api.model.TemplateMetadataResponse;
 import com.corems.templatems.api.model.TemplatePagedResponse;
 import com.corems.templatems.api.model.TemplateParamDefinition;
 import com.corems.templatems.api.model.TemplateResponse;
+import com.corems.templatems.api.model.TemplateRevisionResponse;
 import com.corems.templatems.api.model.UpdateTemplateRequest;
 import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.entity.TemplateRevisionEntity;
+import com.corems.templatems.app.entity.TemplateSummaryEntity;
 import com.corems.templatems.app.repository.TemplateRepository;
+import com.corems.templatems.app.repository.TemplateRevisionRepository;
+import com.corems.templatems.app.repository.TemplateSummaryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZoneOffset;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TemplateManagementService {
 
+    private static final String VIEW_SUMMARY = "summary";
+    private static final int DEFAULT_SCROLL_PAGE_SIZE = 100;
+    private static final int MAX_SCROLL_PAGE_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_PAGE_SIZE = 1000;
+    private static final Sort SCROLL_ORDER = Sort.by("updatedAt", "id");
+
     private final TemplateRepository templateRepository;
+    private final TemplateRevisionRepository templateRevisionRepository;
+    private final TemplateSummaryRepository templateSummaryRepository;
     private final TemplateValidator templateValidator;
     private final RenderingEngine renderingEngine;
+    private final TemplateInvalidationBus templateInvalidationBus;
 
     @Value("${template-service.default-language:en}")
     private String defaultLanguage;
@@ -47,12 +73,13 @@ public class TemplateManagementService {
                 "Template with ID '" + request.getTemplateId() + "' and language '" + language + "' already exists");
         }
 
-        templateValidator.validateSyntax(request.getContent());
+        TemplateValidator.Analysis analysis = templateValidator.analyze(request.getContent());
 
         Map<String, Object> paramSchema = convertParamSchema(request.getParamSchema());
         if (paramSchema == null || paramSchema.isEmpty()) {
-            paramSchema = templateValidator.extractParameters(request.getContent());
+            paramSchema = analysis.parameters();
         }
+        templateValidator.validateParamSchema(paramSchema);
 
         UserPrincipal currentUser = SecurityUtils.getUserPrincipal();
         UUID currentUserId = currentUser.getUserId();
@@ -65,42 +92,82 @@ public class TemplateManagementService {
                 .category(request.getCategory())
                 .language(language)
                 .paramSchema(paramSchema)
+                // Revisions are numbered per template uuid, and this one is new.
+                .revision(1)
                 .createdBy(currentUserId)
                 .updatedBy(currentUserId)
                 .build();
 
         entity = templateRepository.save(entity);
+        templateRevisionRepository.save(TemplateRevisionEntity.of(entity));
+        renderingEngine.prime(analysis.content(), analysis.template());
+
+        // A new language variant replaces the default-language fallback other renders may have been using.
+        templateInvalidationBus.publish(TemplateInvalidation.of(entity));
 
         log.info("Created template: {} (language: {}) by user: {}", entity.getTemplateId(), language, currentUserId);
 
         return mapToResponse(entity);
     }
 
+    /**
+     * The current version of a template, from which the fetch builds both its ETag and its body.
+     */
     @Transactional(readOnly = true)
-    public TemplateResponse getTemplateById(UUID id) {
+    public TemplateSnapshot getTemplateById(UUID id) {
         TemplateEntity entity = templateRepository.findByUuidAndIsDeletedFalse(id)
                 .orElseThrow(() -> ServiceException.of(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND, 
                     "Template with ID '" + id + "' not found"));
 
-        return mapToResponse(entity);
+        return TemplateSnapshot.of(entity);
     }
 
     @Transactional(readOnly = true)
-    public TemplatePagedResponse listTemplates(Optional<Integer> page, Optional<Integer> pageSize, Optional<String> sort, Optional<String> search, Optional<java.util.List<String>> filter) {
-        QueryParams params = new QueryParams(page, pageSize, search, sort, filter);
-        
-        Page<TemplateEntity> templatePage = templateRepository.findAllByQueryParams(params);
-        java.util.List<TemplateResponse> items = templatePage.getContent().stream()
-                .map(this::mapToResponse)
-                .toList();
+    public TemplatePagedResponse listTemplates(Optional<Integer> page, Optional<Integer> pageSize, Optional<String> sort, Optional<String> search, Optional<List<String>> filter, Optional<String> view) {
+        Optional<String> searchTerm = search.map(String::trim).filter(term -> !term.isEmpty());
+        boolean ranked = searchTerm.isPresent() && sort.filter(value -> !value.isBlank()).isEmpty()
+                && filter.filter(conditions -> !conditions.isEmpty()).isEmpty();
+
+        // The summary view pages over a projection of the table, so template bodies are never read.
+        Page<TemplateResponse> templatePage;
+        if (ranked) {
+            templatePage = searchTemplates(searchTerm.get(), page, pageSize, isSummaryView(view));
+        } else {
+            QueryParams params = new QueryParams(page, pageSize, search, sort, filter);
+            templatePage = isSummaryView(view)
+                    ? templateSummaryRepository.findAllByQueryParams(params).map(this::mapToSummaryResponse)
+                    : templateRepository.findAllByQueryParams(params).map(this::mapToResponse);
+        }
 
         TemplatePagedResponse response = new TemplatePagedResponse(templatePage.getNumber() + 1, templatePage.getSize());
-        response.setItems(items);
+        response.setItems(templatePage.getContent());
         response.setTotalPages(templatePage.getTotalPages());
         response.setTotalElements(templatePage.getTotalElements());
         return response;
     }
 
+    /**
+     * Keyset pagination on {@code (updatedAt, id)}: every page is an index range scan from the cursor, and
+     * the count is only run when asked for.
+     */
+    @Transactional(readOnly = true)
+    public TemplatePagedResponse scrollTemplates(Optional<String> cursor, Optional<Integer> pageSize, Optional<String> category,
+                                                 Optional<String> language, Optional<String> view, Optional<Boolean> includeTotal) {
+        TemplateCursor position = cursor.map(TemplateCursor::decode).orElse(TemplateCursor.FIRST);
+        int size = Math.min(pageSize.filter(value -> value > 0).orElse(DEFAULT_SCROLL_PAGE_SIZE), MAX_SCROLL_PAGE_SIZE);
+        TemplateCategory categoryFilter = category.map(TemplateSearch::parseCategory).orElse(null);
+        boolean total = includeTotal.orElse(false);
+
+        if (isSummaryView(view)) {
+            return scroll(templateSummaryRepository, this::mapToSummaryResponse,
+                (current, last) -> current.next(last.getUpdatedAt(), last.getId()),
+                position, size, scrollFilter(categoryFilter, language.orElse(null)), total);
+        }
+        return scroll(templateRepository, this::mapToResponse,
+            (current, last) -> current.next(last.getUpdatedAt(), last.getId()),
+            position, size, scrollFilter(categoryFilter, language.orElse(null)), total);
+    }
+
     @Transactional
     public TemplateResponse updateTemplateById(UUID id, UpdateTemplateRequest request) {
         TemplateEntity entity = templateRepository.findByUuidAndIsDeletedFalse(id)
@@ -109,8 +176,7 @@ public class TemplateManagementService {
 
         String oldTemplateId = entity.getTemplateId();
         String oldLanguage = entity.getLanguage();
-        boolean contentChanged = false;
-        boolean identifierChanged = false;
+        TemplateRevisionEntity current = TemplateRevisionEntity.of(entity);
 
         if (request.getTemplateId() != null && !request.getTemplateId().equals(entity.getTemplateId())) {
             Optional<TemplateEntity> existing = templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse(
@@ -123,7 +189,6 @@ public class TemplateManagementService {
                     (request.getLanguage() != null ? request.getLanguage() : entity.getLanguage()) + "' already exists");
             }
             entity.setTemplateId(request.getTemplateId());
-            identifierChanged = true;
         }
 
         if (request.getLanguage() != null && !request.getLanguage().equals(entity.getLanguage())) {
@@ -137,7 +202,6 @@ public class TemplateManagementService {
                     "' and language '" + request.getLanguage() + "' already exists");
             }
             entity.setLanguage(request.getLanguage());
-            identifierChanged = true;
         }
 
         if (request.getName() != null) {
@@ -148,10 +212,10 @@ public class TemplateManagementService {
             entity.setDescription(request.getDescription());
         }
 
+        TemplateValidator.Analysis analysis = null;
         if (request.getContent() != null) {
-            templateValidator.validateSyntax(request.getContent());
+            analysis = templateValidator.analyze(request.getContent());
             entity.setContent(request.getContent());
-            contentChanged = true;
         }
 
         if (request.getCategory() != null) {
@@ -159,22 +223,32 @@ public class TemplateManagementService {
         }
 
         if (request.getParamSchema() != null) {
-            entity.setParamSchema(convertParamSchema(request.getParamSchema()));
-        } else if (contentChanged) {
-            Map<String, Object> extractedParams = templateValidator.extractParameters(entity.getContent());
-            entity.setParamSchema(extractedParams);
+            Map<String, Object> paramSchema = convertParamSchema(request.getParamSchema());
+            templateValidator.validateParamSchema(paramSchema);
+            entity.setParamSchema(paramSchema);
+        } else if (analysis != null) {
+            entity.setParamSchema(analysis.parameters());
         }
 
         UserPrincipal currentUser = SecurityUtils.getUserPrincipal();
         entity.setUpdatedBy(currentUser.getUserId());
 
-        entity = templateRepository.save(entity);
+        boolean changed = !current.matches(entity);
+        if (changed) {
+            entity.setRevision(nextRevision(entity.getUuid()));
+        }
 
-        if (contentChanged || identifierChanged) {
-            renderingEngine.invalidateCache(oldTemplateId + ":" + oldLanguage);
-            if (identifierChanged) {
-                renderingEngine.invalidateCache(entity.getTemplateId() + ":" + entity.getLanguage());
-            }
+        entity = templateRepository.saveAndFlush(entity);
+        if (changed) {
+            templateRevisionRepository.save(TemplateRevisionEntity.of(entity));
+        }
+        if (analysis != null) {
+            renderingEngine.prime(analysis.content(), analysis.template());
+        }
+
+        templateInvalidationBus.publish(TemplateInvalidation.of(oldTemplateId, oldLanguage, entity));
+        if (!oldTemplateId.equals(entity.getTemplateId()) || !oldLanguage.equals(entity.getLanguage())) {
+            templateInvalidationBus.publish(TemplateInvalidation.of(entity));
         }
 
         log.info("Updated template: {} (language: {}) by user: {}", entity.getTemplateId(), entity.getLanguage(), currentUser.getUserId());
@@ -182,6 +256,55 @@ public class TemplateManagementService {
         return mapToResponse(entity);
     }
 
+    @Transactional(readOnly = true)
+    public List<TemplateRevisionResponse> listTemplateRevisions(UUID id) {
+        TemplateEntity entity = templateRepository.findByUuidAndIsDeletedFalse(id)
+                .orElseThrow(() -> ServiceException.of(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND,
+                    "Template with ID '" + id + "' not found"));
+
+        return templateRevisionRepository.findAllByTemplateUuidOrderByRevisionDesc(entity.getUuid())
+                .stream()
+                .map(revision -> mapToRevisionResponse(revision, entity.getRevision()))
+                .toList();
+    }
+
+    /**
+     * Rolls the template forward or back to an existing revision. The row is a copy of its current revision,
+     * so this rewrites the copy and moves the pointer; no revision is written.
+     */
+    @Transactional
+    public TemplateResponse setTemplateRevision(UUID id, SetTemplateRevisionRequest request) {
+        TemplateEntity entity = templateRepository.findByUuidAndIsDeletedFalse(id)
+                .orElseThrow(() -> ServiceException.of(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND,
+                    "Template with ID '" + id + "' not found"));
+
+        TemplateRevisionEntity revision = templateRevisionRepository
+                .findByTemplateUuidAndRevision(entity.getUuid(), request.getRevision())
+                .orElseThrow(() -> ServiceException.of(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND,
+                    TemplateSnapshotCache.notFoundMessage(entity.getTemplateId(), entity.getLanguage(), request.getRevision())));
+
+        if (revision.getRevision().equals(entity.getRevision())) {
+            return mapToResponse(entity);
+        }
+
+        entity.setName(revision.getName());
+        entity.setDescription(revision.getDescription());
+        entity.setContent(revision.getContent());
+        entity.setCategory(revision.getCategory());
+        entity.setParamSchema(revision.getParamSchema());
+        entity.setRevision(revision.getRevision());
+        UserPrincipal currentUser = SecurityUtils.getUserPrincipal();
+        entity.setUpdatedBy(currentUser.getUserId());
+
+        TemplateEntity saved = templateRepository.saveAndFlush(entity);
+        templateInvalidationBus.publish(TemplateInvalidation.of(saved));
+
+        log.info("Set template: {} (language: {}) to revision {} by user: {}", saved.getTemplateId(), saved.getLanguage(),
+            saved.getRevision(), currentUser.getUserId());
+
+        return mapToResponse(saved);
+    }
+
     @Transactional
     public void deleteTemplateById(UUID id) {
         TemplateEntity entity = templateRepository.findByUuidAndIsDeletedFalse(id)
@@ -191,14 +314,66 @@ public class TemplateManagementService {
         entity.setIsDeleted(true);
         UserPrincipal currentUser = SecurityUtils.getUserPrincipal();
         entity.setUpdatedBy(currentUser.getUserId());
-        templateRepository.save(entity);
+        entity = templateRepository.saveAndFlush(entity);
 
-        renderingEngine.invalidateCache(entity.getTemplateId() + ":" + entity.getLanguage());
+        templateInvalidationBus.publish(TemplateInvalidation.of(entity));
 
         log.info("Deleted template: {} (language: {})", entity.getTemplateId(), entity.getLanguage());
     }
 
-    private Map<String, Object> convertParamSchema(Map<String, TemplateParamDefinition> paramDefMap) {
+    /**
+     * Ranked search backed by the full-text and trigram indexes. A search with a {@code sort} or {@code filter}
+     * goes through {@link QueryParams} like the plain list instead, which parses and whitelists both.
+     */
+    private Page<TemplateResponse> searchTemplates(String search, Optional<Integer> page, Optional<Integer> pageSize,
+                                                   boolean summary) {
+        Pageable pageable = PageRequest.of(Math.max(page.orElse(1), 1) - 1,
+            Math.min(pageSize.filter(value -> value > 0).orElse(DEFAULT_SEARCH_PAGE_SIZE), MAX_SEARCH_PAGE_SIZE));
+        TemplateSearch templateSearch = new TemplateSearch(search);
+        return summary
+                ? templateSummaryRepository.findAll(templateSearch.matching(), pageable).map(this::mapToSummaryResponse)
+                : templateRepository.findAll(templateSearch.matching(), pageable).map(this::mapToResponse);
+    }
+
+    private <T> TemplatePagedResponse scroll(SearchableRepository<T, Long> repository, Function<T, TemplateResponse> mapper,
+                                             BiFunction<TemplateCursor, T, TemplateCursor> nextCursor, TemplateCursor cursor,
+                                             int pageSize, Specification<T> filter, boolean includeTotal) {
+        // One extra row tells whether another page exists without a count query.
+        List<T> rows = repository.findBy(filter.and(cursor.after()), (FluentQuery.FetchableFluentQuery<T> query) -> query
+                .sortBy(SCROLL_ORDER)
+                .limit(pageSize + 1)
+                .all());
+        List<T> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+
+        TemplatePagedResponse response = new TemplatePagedResponse(cursor.page(), pageSize);
+        response.setItems(page.stream().map(mapper).toList());
+        if (rows.size() > pageSize) {
+            response.setNextCursor(nextCursor.apply(cursor, page.getLast()).encode());
+        }
+        if (includeTotal) {
+            long totalElements = repository.count(filter);
+            response.setTotalElements(totalElements);
+            response.setTotalPages((int) ((totalElements + pageSize - 1) / pageSize));
+        }
+        return response;
+    }
+
+    private static <T> Specification<T> scrollFilter(TemplateCategory category, String language) {
+        return (root, query, cb) -> cb.and(
+            cb.isFalse(root.get("isDeleted")),
+            category != null ? cb.equal(root.get("category"), category) : cb.conjunction(),
+            language != null ? cb.equal(root.get("language"), language) : cb.conjunction());
+    }
+
+    private int nextRevision(UUID templateUuid) {
+        return templateRevisionRepository.findLatestRevision(templateUuid) + 1;
+    }
+
+    private static boolean isSummaryView(Optional<String> view) {
+        return view.filter(VIEW_SUMMARY::equalsIgnoreCase).isPresent();
+    }
+
+    static Map<String, Object> convertParamSchema(Map<String, TemplateParamDefinition> paramDefMap) {
         if (paramDefMap == null) {
             return null;
         }
@@ -254,6 +429,9 @@ public class TemplateManagementService {
                 .name(entity.getName())
                 .description(entity.getDescription())
                 .content(entity.getContent())
+                .contentLength(entity.getContentLength())
+                .contentHash(entity.getContentHash())
+                .revision(entity.getRevision())
                 .category(entity.getCategory())
                 .language(entity.getLanguage())
                 .paramSchema(convertToParamDefinitionMap(entity.getParamSchema()))
@@ -262,4 +440,36 @@ public class TemplateManagementService {
                 .createdBy(entity.getCreatedBy())
                 .updatedBy(entity.getUpdatedBy());
     }
+
+    private TemplateResponse mapToSummaryResponse(TemplateSummaryEntity entity) {
+        return new TemplateResponse()
+                .id(entity.getUuid())
+                .templateId(entity.getTemplateId())
+                .name(entity.getName())
+                .description(entity.getDescription())
+                .contentLength(entity.getContentLength())
+                .contentHash(entity.getContentHash())
+                .revision(entity.getRevision())
+                .category(entity.getCategory())
+                .language(entity.getLanguage())
+                .paramSchema(null)
+                .createdAt(entity.getCreatedAt().atOffset(ZoneOffset.UTC))
+                .updatedAt(entity.getUpdatedAt().atOffset(ZoneOffset.UTC))
+                .createdBy(entity.getCreatedBy())
+                .updatedBy(entity.getUpdatedBy());
+    }
+
+    private TemplateRevisionResponse mapToRevisionResponse(TemplateRevisionEntity revision, Integer currentRevision) {
+        return new TemplateRevisionResponse()
+                .revision(revision.getRevision())
+                .templateId(revision.getTemplateId())
+                .language(revision.getLanguage())
+                .name(revision.getName())
+                .contentLength(revision.getContentLength())
+                .contentHash(revision.getContentHash())
+                .category(revision.getCategory())
+                .current(revision.getRevision().equals(currentRevision))
+                .createdAt(revision.getCreatedAt().atOffset(ZoneOffset.UTC))
+                .createdBy(revision.getCreatedBy());
+    }
 }
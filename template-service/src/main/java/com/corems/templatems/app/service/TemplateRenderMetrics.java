@@ -0,0 +1,160 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.exception.ServiceException;
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.exception.TemplateServiceExceptionReasonCodes;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render pipeline meters, tagged by {@code templateId}, {@code language} and {@code category}. Meters are
+ * registered once per template and kept by cache key, so recording a stage costs a map lookup and a timer
+ * update; the number of distinct {@code templateId} values is capped by the filter in {@code TemplateMetricsConfig}.
+ * Percentile histograms are only published by the aggregate {@link #STAGE_LATENCY} and {@link #OUTPUT_DISTRIBUTION}
+ * meters, which are tagged by category alone, so the bucket series do not multiply with every template.
+ * The lookup map is bounded too: an evicted template looks its meters up in the registry again, which returns
+ * the ones already registered.
+ */
+@Component
+public class TemplateRenderMetrics {
+
+    public static final String STAGE_TIMER = "templates.render.stage";
+    public static final String OUTPUT_SIZE = "templates.render.output.size";
+    public static final String STAGE_LATENCY = "templates.render.latency";
+    public static final String OUTPUT_DISTRIBUTION = "templates.render.size";
+    public static final String ERRORS = "templates.render.errors";
+    public static final String COMPILATIONS = "templates.compiled.compilations";
+
+    public enum Stage {
+        LOOKUP, RESOLVE, VALIDATE, COMPILE, APPLY;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final int MAX_TEMPLATE_METERS = 10_000;
+    private static final Tags UNKNOWN_TEMPLATE = templateTags("unknown", "unknown", "unknown");
+
+    private final MeterRegistry registry;
+    private final Cache<String, TemplateMeters> meters = Caffeine.newBuilder().maximumSize(MAX_TEMPLATE_METERS).build();
+    private final Counter compilationsOnMiss;
+    private final Counter compilationsOnStale;
+
+    public TemplateRenderMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.compilationsOnMiss = compilations("miss");
+        this.compilationsOnStale = compilations("stale");
+    }
+
+    public void record(Stage stage, TemplateSnapshot snapshot, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        TemplateMeters current = metersFor(snapshot);
+        current.stages[stage.ordinal()].record(elapsed, TimeUnit.NANOSECONDS);
+        current.stageLatencies[stage.ordinal()].record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOutput(TemplateSnapshot snapshot, long characters) {
+        TemplateMeters current = metersFor(snapshot);
+        current.outputSize.record(characters);
+        current.outputDistribution.record(characters);
+    }
+
+    /**
+     * Counts a compilation into the compiled-template cache; {@code stale} means the template's content
+     * changed since it was last compiled.
+     */
+    public void recordCompilation(boolean stale) {
+        (stale ? compilationsOnStale : compilationsOnMiss).increment();
+    }
+
+    /**
+     * Counts a failed render and returns the exception to throw.
+     */
+    public ServiceException error(TemplateServiceExceptionReasonCodes reason, TemplateSnapshot snapshot, String message) {
+        return error(reason, templateTags(snapshot.templateId(), snapshot.language(), String.valueOf(snapshot.category())), message);
+    }
+
+    /**
+     * Counts a render that failed before its template was found. The requested id and language are not used
+     * as tags, so requests for arbitrary ids cannot grow the number of series.
+     */
+    public ServiceException error(TemplateServiceExceptionReasonCodes reason, String message) {
+        return error(reason, UNKNOWN_TEMPLATE, message);
+    }
+
+    private ServiceException error(TemplateServiceExceptionReasonCodes reason, Tags tags, String message) {
+        Counter.builder(ERRORS)
+                .description("Failed renders by reason code")
+                .tags(tags)
+                .tag("reason", reason.getErrorCode())
+                .register(registry)
+                .increment();
+        return ServiceException.of(reason, message);
+    }
+
+    private TemplateMeters metersFor(TemplateSnapshot snapshot) {
+        TemplateMeters current = meters.getIfPresent(snapshot.cacheKey());
+        if (current == null || current.category != snapshot.category()) {
+            // A category change on update re-registers the template under its new tags.
+            current = new TemplateMeters(snapshot);
+            meters.put(snapshot.cacheKey(), current);
+        }
+        return current;
+    }
+
+    private Counter compilations(String cause) {
+        return Counter.builder(COMPILATIONS)
+                .description("Templates compiled into the compiled-template cache")
+                .tag("cause", cause)
+                .register(registry);
+    }
+
+    private static Tags templateTags(String templateId, String language, String category) {
+        return Tags.of("templateId", templateId, "language", language, "category", category);
+    }
+
+    private final class TemplateMeters {
+
+        private final TemplateCategory category;
+        private final Timer[] stages = new Timer[Stage.values().length];
+        private final Timer[] stageLatencies = new Timer[Stage.values().length];
+        private final DistributionSummary outputSize;
+        private final DistributionSummary outputDistribution;
+
+        private TemplateMeters(TemplateSnapshot snapshot) {
+            this.category = snapshot.category();
+            Tags tags = templateTags(snapshot.templateId(), snapshot.language(), String.valueOf(snapshot.category()));
+            for (Stage stage : Stage.values()) {
+                stages[stage.ordinal()] = Timer.builder(STAGE_TIMER)
+                        .description("Time spent in each render stage")
+                        .tags(tags)
+                        .tag("stage", stage.tag)
+                        .register(registry);
+                // Shared by every template in the category; the registry returns the already registered timer.
+                stageLatencies[stage.ordinal()] = Timer.builder(STAGE_LATENCY)
+                        .description("Render stage latency distribution across templates")
+                        .tag("category", String.valueOf(category))
+                        .tag("stage", stage.tag)
+                        .register(registry);
+            }
+            this.outputSize = DistributionSummary.builder(OUTPUT_SIZE)
+                    .description("Rendered output size")
+                    .baseUnit("characters")
+                    .tags(tags)
+                    .register(registry);
+            this.outputDistribution = DistributionSummary.builder(OUTPUT_DISTRIBUTION)
+                    .description("Rendered output size distribution across templates")
+                    .baseUnit("characters")
+                    .tag("category", String.valueOf(category))
+                    .register(registry);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.corems.templatems.app.service;
 
-import com.corems.common.exception.ServiceException;
 import com.corems.templatems.app.exception.TemplateServiceExceptionReasonCodes;
 import com.corems.templatems.api.model.RenderTemplateRequest;
 import com.corems.templatems.api.model.RenderTemplateResponse;
@@ -8,126 +7,159 @@ import com.corems.templatems.api.model.TemplateMetadataResponse;
 import com.corems.templatems.api.model.TemplateParamDefinition;
 import com.corems.templatems.api.model.TemplateResponse;
 import com.corems.templatems.app.entity.TemplateEntity;
-import com.corems.templatems.app.repository.TemplateRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.function.ThrowingSupplier;
 
+import java.io.Writer;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.util.ArrayList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TemplateRenderingService {
 
-    private final TemplateRepository templateRepository;
+    private final TemplateSnapshotCache templateSnapshotCache;
     private final RenderingEngine renderingEngine;
+    private final RenderedOutputCache renderedOutputCache;
+    private final TemplateRenderMetrics metrics;
 
     @Value("${template-service.default-language:en}")
     private String defaultLanguage;
 
-    @Transactional(readOnly = true)
-    public TemplateResponse getTemplateByTemplateId(String templateId, String language) {
-        String effectiveLanguage = language != null ? language : defaultLanguage;
+    /**
+     * Snapshot of the template's current version or of the pinned revision. Fetches answer {@code If-None-Match}
+     * from its ETag and map the body from the same snapshot, so revalidating an unchanged template never reads
+     * the row.
+     */
+    public TemplateSnapshot getTemplate(String templateId, String language, Integer revision) {
+        return templateSnapshotCache.get(templateId, resolveLanguage(language), revision);
+    }
 
-        TemplateEntity entity = templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse(templateId, effectiveLanguage)
-                .orElseThrow(() -> ServiceException.of(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND, 
-                    "Template '" + templateId + "' with language '" + effectiveLanguage + "' not found"));
+    public RenderTemplateResponse renderTemplate(String templateId, String language, Integer revision, RenderTemplateRequest request) {
+        TemplateSnapshot snapshot = lookup(templateId, language, revision);
 
-        return mapToResponse(entity);
+        return new RenderTemplateResponse()
+                .html(render(snapshot, request.getParams()))
+                .revision(snapshot.revision());
     }
 
-    @Transactional(readOnly = true)
-    public RenderTemplateResponse renderTemplate(String templateId, String language, RenderTemplateRequest request) {
-        String effectiveLanguage = language != null ? language : defaultLanguage;
-
-        TemplateEntity entity = templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse(templateId, effectiveLanguage)
-                .orElseThrow(() -> ServiceException.of(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND, 
-                    "Template '" + templateId + "' with language '" + effectiveLanguage + "' not found"));
+    public void renderTemplate(String templateId, String language, Integer revision, RenderTemplateRequest request,
+                               ThrowingSupplier<Writer> writer) {
+        TemplateSnapshot snapshot = lookup(templateId, language, revision);
 
-        Map<String, Object> params = resolveTemplateVariables(request.getParams());
-        validateRenderParams(entity, params);
+        Map<String, Object> params = prepareParams(snapshot, request.getParams());
 
-        String html = renderingEngine.render(templateId + ":" + effectiveLanguage, entity.getContent(), params);
+        // The writer is only opened once the request is known to be valid, so errors can still be returned as JSON.
+        renderingEngine.render(snapshot, params, writer.get());
+    }
 
-        return new RenderTemplateResponse().html(html);
+    public String render(TemplateSnapshot snapshot, Map<String, Object> requestParams) {
+        if (renderedOutputCache.appliesTo(snapshot)) {
+            Map<String, Object> params = requestParams != null ? requestParams : Map.of();
+            return renderedOutputCache.get(snapshot, params,
+                () -> renderingEngine.render(snapshot, prepareParams(snapshot, params)));
+        }
+        return renderingEngine.render(snapshot, prepareParams(snapshot, requestParams));
     }
 
-    @Transactional(readOnly = true)
-    public TemplateMetadataResponse getTemplateMetadata(String templateId, String language) {
-        String effectiveLanguage = language != null ? language : defaultLanguage;
+    public String resolveLanguage(String language) {
+        return language != null ? language : defaultLanguage;
+    }
 
-        TemplateEntity entity = templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse(templateId, effectiveLanguage)
-                .orElseThrow(() -> ServiceException.of(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND, 
-                    "Template '" + templateId + "' with language '" + effectiveLanguage + "' not found"));
+    public TemplateResponse toTemplateResponse(TemplateSnapshot snapshot) {
+        return new TemplateResponse()
+                .id(snapshot.uuid())
+                .templateId(snapshot.templateId())
+                .name(snapshot.name())
+                .description(snapshot.description())
+                .content(snapshot.content())
+                .contentLength(TemplateEntity.contentLength(snapshot.content()))
+                .contentHash(snapshot.contentHash())
+                .revision(snapshot.revision())
+                .category(snapshot.category())
+                .language(snapshot.language())
+                .paramSchema(convertToParamDefinitionMap(snapshot.paramSchema()))
+                .createdAt(utc(snapshot.audit().createdAt()))
+                .updatedAt(utc(snapshot.audit().updatedAt()))
+                .createdBy(snapshot.audit().createdBy())
+                .updatedBy(snapshot.audit().updatedBy());
+    }
 
+    public TemplateMetadataResponse toTemplateMetadata(TemplateSnapshot snapshot) {
         return new TemplateMetadataResponse()
-                .templateId(entity.getTemplateId())
-                .name(entity.getName())
-                .description(entity.getDescription())
-                .category(entity.getCategory())
-                .language(entity.getLanguage())
-                .paramSchema(convertToParamDefinitionMap(entity.getParamSchema()));
+                .templateId(snapshot.templateId())
+                .name(snapshot.name())
+                .description(snapshot.description())
+                .category(snapshot.category())
+                .language(snapshot.language())
+                .revision(snapshot.revision())
+                .paramSchema(convertToParamDefinitionMap(snapshot.paramSchema()));
     }
 
-    private void validateRenderParams(TemplateEntity entity, Map<String, Object> params) {
-        if (entity.getParamSchema() == null || entity.getParamSchema().isEmpty()) {
-            return;
-        }
+    private TemplateSnapshot lookup(String templateId, String language, Integer revision) {
+        String effectiveLanguage = language != null ? language : defaultLanguage;
 
-        List<String> missingParams = new ArrayList<>();
+        long start = System.nanoTime();
+        TemplateSnapshot snapshot = templateSnapshotCache.find(templateId, effectiveLanguage, revision)
+                .orElseThrow(() -> metrics.error(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND,
+                    TemplateSnapshotCache.notFoundMessage(templateId, effectiveLanguage, revision)));
+        metrics.record(TemplateRenderMetrics.Stage.LOOKUP, snapshot, start);
+        return snapshot;
+    }
 
-        for (Map.Entry<String, Object> entry : entity.getParamSchema().entrySet()) {
-            String paramName = entry.getKey();
-            Object paramDef = entry.getValue();
+    private Map<String, Object> prepareParams(TemplateSnapshot snapshot, Map<String, Object> requestParams) {
+        Map<String, Object> params = requestParams != null ? requestParams : Map.of();
 
-            if (paramDef instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> defMap = (Map<String, Object>) paramDef;
-                Boolean required = (Boolean) defMap.get("required");
-
-                if (Boolean.TRUE.equals(required) && !params.containsKey(paramName)) {
-                    missingParams.add(paramName);
-                }
-            }
+        // Validation runs against the request as sent, before any lookup or copy is made for rendering.
+        long start = System.nanoTime();
+        ParamValidator.Violation violation = snapshot.paramValidator().check(params);
+        if (violation != null) {
+            throw metrics.error(violation.reason(), snapshot, violation.message());
         }
+        metrics.record(TemplateRenderMetrics.Stage.VALIDATE, snapshot, start);
 
-        if (!missingParams.isEmpty()) {
-            throw ServiceException.of(TemplateServiceExceptionReasonCodes.MISSING_REQUIRED_PARAMS, 
-                "Missing required parameters: " + String.join(", ", missingParams));
-        }
+        start = System.nanoTime();
+        Map<String, Object> resolved = resolveTemplateVariables(snapshot, params);
+        metrics.record(TemplateRenderMetrics.Stage.RESOLVE, snapshot, start);
+        return resolved;
     }
 
-    private Map<String, Object> resolveTemplateVariables(Map<String, Object> params) {
-        if (params == null) {
-            return new HashMap<>();
-        }
-
-        Map<String, Object> resolved = new HashMap<>(params);
-        List<String> keysToResolve = new ArrayList<>();
-
-        for (String key : resolved.keySet()) {
-            if (key.startsWith("template_")) {
-                keysToResolve.add(key);
+    /**
+     * Legacy composition: a {@code template_<id>} param is replaced with the raw content of that template.
+     * New templates should use {@code {{> id}}} partials, which are rendered with the caller's params.
+     */
+    private Map<String, Object> resolveTemplateVariables(TemplateSnapshot snapshot, Map<String, Object> params) {
+        Map<String, Object> contents = null;
+
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith("template_")) {
+                continue;
             }
-        }
 
-        for (String key : keysToResolve) {
             String templateId = key.substring("template_".length());
-            TemplateEntity templateEntity = templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse(templateId, defaultLanguage)
-                    .orElseThrow(() -> ServiceException.of(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND, 
+            TemplateSnapshot referenced = templateSnapshotCache.findLocalized(templateId, snapshot.language())
+                    .orElseThrow(() -> metrics.error(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND, snapshot,
                         "Referenced template '" + templateId + "' not found"));
 
-            resolved.put(key, templateEntity.getContent());
+            if (contents == null) {
+                contents = new HashMap<>();
+            }
+            contents.put(key, referenced.content());
         }
 
-        return resolved;
+        return contents != null ? new ResolvedParams(params, contents) : params;
     }
 
     private Map<String, TemplateParamDefinition> convertToParamDefinitionMap(Map<String, Object> paramSchema) {
@@ -156,19 +188,66 @@ public class TemplateRenderingService {
         return result;
     }
 
-    private TemplateResponse mapToResponse(TemplateEntity entity) {
-        return new TemplateResponse()
-                .id(entity.getUuid())
-                .templateId(entity.getTemplateId())
-                .name(entity.getName())
-                .description(entity.getDescription())
-                .content(entity.getContent())
-                .category(entity.getCategory())
-                .language(entity.getLanguage())
-                .paramSchema(convertToParamDefinitionMap(entity.getParamSchema()))
-                .createdAt(entity.getCreatedAt().atOffset(ZoneOffset.UTC))
-                .updatedAt(entity.getUpdatedAt().atOffset(ZoneOffset.UTC))
-                .createdBy(entity.getCreatedBy())
-                .updatedBy(entity.getUpdatedBy());
+    private static OffsetDateTime utc(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
+    }
+
+    /**
+     * The request params with {@code template_<id>} values replaced by template content, read through to the
+     * request map instead of copying it, since its values can be large {@code #each} payloads.
+     */
+    private static final class ResolvedParams extends AbstractMap<String, Object> {
+
+        private final Map<String, Object> params;
+        private final Map<String, Object> contents;
+
+        private ResolvedParams(Map<String, Object> params, Map<String, Object> contents) {
+            this.params = params;
+            this.contents = contents;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Object content = contents.get(key);
+            return content != null ? content : params.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return params.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return params.size();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    Iterator<Entry<String, Object>> entries = params.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            Entry<String, Object> entry = entries.next();
+                            Object content = contents.get(entry.getKey());
+                            return content != null ? new SimpleImmutableEntry<>(entry.getKey(), content) : entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return params.size();
+                }
+            };
+        }
     }
 }
@@ -0,0 +1,55 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.exception.ServiceException;
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.exception.TemplateServiceExceptionReasonCodes;
+import com.corems.templatems.app.repository.TemplateSearchFunctions;
+import jakarta.persistence.criteria.Expression;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Ranked search for {@code listTemplates}, as a {@link Specification} over either template entity. The term
+ * matches as a web-style text query (GIN index) or as a substring of the id, name or description (trigram indexes).
+ */
+record TemplateSearch(String term) {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * Rows matching the term, ordered by relevance: text matches by rank, then substring matches by similarity.
+     */
+    <T> Specification<T> matching() {
+        String pattern = "%" + escapeLike(term) + "%";
+        return (root, query, cb) -> {
+            HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+            Expression<String> templateId = root.get("templateId");
+            Expression<String> name = root.get("name");
+            Expression<String> description = root.get("description");
+            Expression<String> text = hcb.value(term);
+
+            query.orderBy(
+                cb.desc(cb.function(TemplateSearchFunctions.RANK, Float.class, templateId, name, description, text)),
+                cb.desc(cb.function(TemplateSearchFunctions.SIMILARITY, Float.class, templateId, name, text)),
+                cb.asc(root.get("id")));
+            return cb.or(
+                cb.isTrue(cb.function(TemplateSearchFunctions.MATCHES, Boolean.class, templateId, name, description, text)),
+                hcb.ilike(templateId, pattern, LIKE_ESCAPE),
+                hcb.ilike(name, pattern, LIKE_ESCAPE),
+                hcb.ilike(description, pattern, LIKE_ESCAPE));
+        };
+    }
+
+    static TemplateCategory parseCategory(String category) {
+        try {
+            return TemplateCategory.fromValue(category);
+        } catch (IllegalArgumentException e) {
+            throw ServiceException.of(TemplateServiceExceptionReasonCodes.INVALID_FILTER,
+                "Unknown category '" + category + "'");
+        }
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,125 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.entity.TemplateRevisionEntity;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable in-memory view of a non-deleted template row, detached from JPA, together with the
+ * parameter validator compiled from its schema. {@code contentHash} is the SHA-256 of the content
+ * and keys the shared compiled-template store.
+ * <p>
+ * A {@code pinned} snapshot is a revision requested by number rather than the row's current state; it
+ * never changes, so it is cached under its template's uuid and revision and never invalidated.
+ * <p>
+ * Fetches build both the ETag and the body from one snapshot, so the two always describe the same version.
+ */
+public record TemplateSnapshot(
+        UUID uuid,
+        String templateId,
+        String language,
+        String name,
+        String description,
+        TemplateCategory category,
+        long version,
+        String content,
+        String contentHash,
+        Map<String, Object> paramSchema,
+        ParamValidator paramValidator,
+        int revision,
+        boolean pinned,
+        Audit audit
+) {
+
+    /**
+     * Who created and last changed the version; a revision was created and last changed at the same time.
+     */
+    public record Audit(Instant createdAt, Instant updatedAt, UUID createdBy, UUID updatedBy) {
+
+        static final Audit NONE = new Audit(null, null, null, null);
+    }
+
+    public TemplateSnapshot(UUID uuid, String templateId, String language, String name, String description,
+                            TemplateCategory category, long version, String content, Map<String, Object> paramSchema) {
+        this(uuid, templateId, language, name, description, category, version, content,
+            TemplateEntity.sha256(content), paramSchema, ParamValidator.compile(paramSchema), 0, false, Audit.NONE);
+    }
+
+    public static TemplateSnapshot of(TemplateEntity entity) {
+        return new TemplateSnapshot(
+                entity.getUuid(),
+                entity.getTemplateId(),
+                entity.getLanguage(),
+                entity.getName(),
+                entity.getDescription(),
+                entity.getCategory(),
+                entity.getVersion() != null ? entity.getVersion() : 0L,
+                entity.getContent(),
+                entity.getContentHash() != null ? entity.getContentHash() : TemplateEntity.sha256(entity.getContent()),
+                entity.getParamSchema(),
+                ParamValidator.compileStored(cacheKey(entity.getTemplateId(), entity.getLanguage()), entity.getParamSchema()),
+                entity.getRevision() != null ? entity.getRevision() : 0,
+                false,
+                new Audit(entity.getCreatedAt(), entity.getUpdatedAt(), entity.getCreatedBy(), entity.getUpdatedBy())
+        );
+    }
+
+    /**
+     * Pinned snapshot of a revision. The revision number doubles as its version, since it identifies the
+     * content within the template.
+     */
+    public static TemplateSnapshot of(TemplateRevisionEntity revision) {
+        return new TemplateSnapshot(
+                revision.getTemplateUuid(),
+                revision.getTemplateId(),
+                revision.getLanguage(),
+                revision.getName(),
+                revision.getDescription(),
+                revision.getCategory(),
+                revision.getRevision(),
+                revision.getContent(),
+                revision.getContentHash(),
+                revision.getParamSchema(),
+                ParamValidator.compileStored(revisionKey(revision.getTemplateUuid(), revision.getRevision()),
+                    revision.getParamSchema()),
+                revision.getRevision(),
+                true,
+                new Audit(revision.getCreatedAt(), revision.getCreatedAt(), revision.getCreatedBy(), revision.getCreatedBy())
+        );
+    }
+
+    public static String cacheKey(String templateId, String language) {
+        return templateId + ":" + language;
+    }
+
+    /**
+     * Key of a lookup by {@code templateId}, language and optional pinned revision.
+     */
+    public static String cacheKey(String templateId, String language, Integer revision) {
+        return revision != null ? cacheKey(templateId, language) + "@" + revision : cacheKey(templateId, language);
+    }
+
+    /**
+     * Key of a revision. Revisions belong to the template's uuid, since its {@code templateId} and language can
+     * change and a deleted key can be reused by another template.
+     */
+    public static String revisionKey(UUID uuid, int revision) {
+        return uuid + "@" + revision;
+    }
+
+    public String cacheKey() {
+        return pinned ? revisionKey(uuid, revision) : cacheKey(templateId, language);
+    }
+
+    /**
+     * Strong ETag of this row version or revision. The id keeps a recreated template from reusing the ETag
+     * of a deleted one whose version or revision counter started at the same value.
+     */
+    public String etag() {
+        return pinned ? "\"" + revisionKey(uuid, revision) + "\"" : "\"" + uuid + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,228 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.exception.ServiceException;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.exception.TemplateServiceExceptionReasonCodes;
+import com.corems.templatems.app.repository.TemplateRepository;
+import com.corems.templatems.app.repository.TemplateRevisionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Slf4j
+@Component
+public class TemplateSnapshotCache implements MeterBinder {
+
+    private final TemplateRepository templateRepository;
+    private final TemplateRevisionRepository templateRevisionRepository;
+    private final Cache<String, TemplateSnapshot> snapshots;
+    private final Cache<String, Optional<UUID>> deletedTemplates;
+    private final Cache<String, Boolean> missingVariants;
+    private final Cache<String, TemplateSnapshot> revisions;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${template-service.default-language:en}")
+    private String defaultLanguage;
+
+    public TemplateSnapshotCache(TemplateRepository templateRepository,
+                                 TemplateRevisionRepository templateRevisionRepository,
+                                 TemplateServiceProperties properties) {
+        this.templateRepository = templateRepository;
+        this.templateRevisionRepository = templateRevisionRepository;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getSnapshots().getMaxEntries())
+                .recordStats()
+                .build();
+        // Keys come from request params (template_<id>), so remembered misses need a bound of their own.
+        this.missingVariants = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getSnapshots().getMaxEntries())
+                .build();
+        this.deletedTemplates = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getSnapshots().getMaxEntries())
+                .build();
+        this.revisions = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getRevisions().getMaxEntries())
+                .recordStats()
+                .build();
+    }
+
+    public TemplateSnapshot get(String templateId, String language) {
+        return find(templateId, language)
+                .orElseThrow(() -> ServiceException.of(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND,
+                    "Template '" + templateId + "' with language '" + language + "' not found"));
+    }
+
+    public TemplateSnapshot get(String templateId, String language, Integer revision) {
+        if (revision == null) {
+            return get(templateId, language);
+        }
+        return findRevision(templateId, language, revision)
+                .orElseThrow(() -> ServiceException.of(TemplateServiceExceptionReasonCodes.TEMPLATE_NOT_FOUND,
+                    notFoundMessage(templateId, language, revision)));
+    }
+
+    public Optional<TemplateSnapshot> find(String templateId, String language) {
+        // Loading inside the cache's compute makes a concurrent evict() for the same key wait for the load,
+        // so a row read just before a committed update can never outlive the eviction.
+        return Optional.ofNullable(loadIfAbsent(snapshots, TemplateSnapshot.cacheKey(templateId, language),
+            key -> load(templateId, language)));
+    }
+
+    /**
+     * Looks up the current template when {@code revision} is null, otherwise that revision of it.
+     */
+    public Optional<TemplateSnapshot> find(String templateId, String language, Integer revision) {
+        return revision != null ? findRevision(templateId, language, revision) : find(templateId, language);
+    }
+
+    /**
+     * A revision of the template under the key, which may since have been deleted. Revisions belong to the
+     * template's uuid, so one renamed away takes its history along instead of leaving it to the key. The uuid
+     * of a deleted template, or the absence of any, is remembered until the key is invalidated.
+     */
+    public Optional<TemplateSnapshot> findRevision(String templateId, String language, int revision) {
+        return find(templateId, language).map(TemplateSnapshot::uuid)
+                .or(() -> loadIfAbsent(deletedTemplates, TemplateSnapshot.cacheKey(templateId, language),
+                    key -> templateRepository.findUuidByTemplateIdAndLanguage(templateId, language)))
+                .flatMap(templateUuid -> findRevision(templateUuid, revision));
+    }
+
+    /**
+     * A revision never changes once written, so it is kept until evicted by size and no invalidation touches
+     * it. Revisions that do not exist yet are not remembered.
+     */
+    public Optional<TemplateSnapshot> findRevision(UUID templateUuid, int revision) {
+        return Optional.ofNullable(revisions.get(TemplateSnapshot.revisionKey(templateUuid, revision),
+            key -> loadRevision(templateUuid, revision)));
+    }
+
+    /**
+     * Looks the template up in the given language, falling back to the default language when no variant exists.
+     */
+    public Optional<TemplateSnapshot> findLocalized(String templateId, String language) {
+        if (language == null || language.equals(defaultLanguage)) {
+            return find(templateId, defaultLanguage);
+        }
+
+        // Remember variants that do not exist, otherwise every fallback render would query the database again.
+        String key = TemplateSnapshot.cacheKey(templateId, language);
+        if (missingVariants.getIfPresent(key) == null) {
+            Optional<TemplateSnapshot> snapshot = find(templateId, language);
+            if (snapshot.isPresent()) {
+                return snapshot;
+            }
+            missingVariants.put(key, Boolean.TRUE);
+        }
+        return find(templateId, defaultLanguage);
+    }
+
+    /**
+     * Counts evictions and clears. A reader that takes it before querying the database can tell whether an
+     * invalidation may have happened since.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Adds a snapshot read elsewhere (e.g. during warm-up) unless the key has been loaded in the meantime or
+     * anything was invalidated after {@code readGeneration}, the {@link #generation()} taken before the read.
+     * Returns whether the snapshot was added.
+     */
+    public boolean prime(TemplateSnapshot snapshot, long readGeneration) {
+        boolean[] primed = {false};
+        // The generation is bumped before an eviction removes its key, so a check made while holding the
+        // key's bin either sees the bump or inserts before the removal. A clear() does not wait for the bin,
+        // hence the second check.
+        snapshots.asMap().computeIfAbsent(snapshot.cacheKey(), key -> {
+            if (generation.get() != readGeneration) {
+                return null;
+            }
+            primed[0] = true;
+            return snapshot;
+        });
+        if (primed[0] && generation.get() != readGeneration) {
+            snapshots.asMap().remove(snapshot.cacheKey(), snapshot);
+            return false;
+        }
+        return primed[0];
+    }
+
+    public void evict(String templateId, String language) {
+        String key = TemplateSnapshot.cacheKey(templateId, language);
+        generation.incrementAndGet();
+        snapshots.invalidate(key);
+        deletedTemplates.invalidate(key);
+        missingVariants.invalidate(key);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        snapshots.invalidateAll();
+        deletedTemplates.invalidateAll();
+        missingVariants.invalidateAll();
+    }
+
+    @EventListener
+    public void onTemplateInvalidation(TemplateInvalidation invalidation) {
+        if (invalidation.isGlobal()) {
+            clear();
+        } else {
+            evict(invalidation.templateId(), invalidation.language());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, snapshots, "templates.snapshots");
+        CaffeineCacheMetrics.monitor(registry, revisions, "templates.revisions");
+    }
+
+    static String notFoundMessage(String templateId, String language, Integer revision) {
+        return revision != null
+                ? "Revision " + revision + " of template '" + templateId + "' with language '" + language + "' not found"
+                : "Template '" + templateId + "' with language '" + language + "' not found";
+    }
+
+    /**
+     * Caffeine's invalidateAll() does not wait for loads in flight, unlike invalidate(key), so a value loaded
+     * while the caches were cleared may predate the clear. It is still returned, but not kept.
+     */
+    private <V> V loadIfAbsent(Cache<String, V> cache, String key, Function<String, V> loader) {
+        long readGeneration = generation.get();
+        boolean[] loaded = {false};
+        V value = cache.get(key, k -> {
+            loaded[0] = true;
+            return loader.apply(k);
+        });
+        if (loaded[0] && value != null && generation.get() != readGeneration) {
+            cache.asMap().remove(key, value);
+        }
+        return value;
+    }
+
+    private TemplateSnapshot load(String templateId, String language) {
+        log.debug("Loading template snapshot: {} (language: {})", templateId, language);
+        return templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse(templateId, language)
+                .map(TemplateSnapshot::of)
+                .orElse(null);
+    }
+
+    private TemplateSnapshot loadRevision(UUID templateUuid, int revision) {
+        log.debug("Loading template revision: {} (revision: {})", templateUuid, revision);
+        return templateRevisionRepository.findByTemplateUuidAndRevision(templateUuid, revision)
+                .map(TemplateSnapshot::of)
+                .orElse(null);
+    }
+}
@@ -2,73 +2,43 @@ package com.corems.templatems.app.service;
 
 import com.corems.common.exception.ServiceException;
 import com.corems.templatems.app.exception.TemplateServiceExceptionReasonCodes;
-import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Template;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.IOException;
 import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Component
 public class TemplateValidator {
 
-    private final Handlebars handlebars;
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{([^{}#/]+)\\}\\}");
+    private final RenderingEngine renderingEngine;
 
-    public TemplateValidator() {
-        this.handlebars = new Handlebars();
+    public TemplateValidator(RenderingEngine renderingEngine) {
+        this.renderingEngine = renderingEngine;
     }
 
-    public void validateSyntax(String templateContent) {
+    /**
+     * Compiles the content once to check its syntax and derive a param schema from the resulting AST. The
+     * compiled template is returned so it can be handed to the rendering engine instead of being parsed again
+     * on first render.
+     */
+    public Analysis analyze(String templateContent) {
+        Template template;
         try {
-            handlebars.compileInline(templateContent);
-        } catch (Exception e) {
+            template = renderingEngine.compile(templateContent);
+        } catch (IOException | RuntimeException e) {
             throw ServiceException.of(
                 TemplateServiceExceptionReasonCodes.INVALID_TEMPLATE_SYNTAX,
                 "Invalid template syntax: " + e.getMessage()
             );
         }
+        return new Analysis(templateContent, template, ParameterCollector.collect(template, renderingEngine::isHelper));
     }
 
-    public Map<String, Object> extractParameters(String templateContent) {
-        Set<String> paramNames = new HashSet<>();
-        Matcher matcher = VARIABLE_PATTERN.matcher(templateContent);
-        
-        while (matcher.find()) {
-            String variable = matcher.group(1).trim();
-            if (!isHelperOrBuiltin(variable)) {
-                String paramName = extractParamName(variable);
-                paramNames.add(paramName);
-            }
-        }
-        
-        Map<String, Object> paramSchema = new HashMap<>();
-        for (String paramName : paramNames) {
-            Map<String, Object> paramDef = new HashMap<>();
-            paramDef.put("required", true);
-            paramDef.put("type", "string");
-            paramSchema.put(paramName, paramDef);
-        }
-        
-        return paramSchema;
+    public void validateParamSchema(Map<String, Object> paramSchema) {
+        ParamValidator.compile(paramSchema);
     }
 
-    private boolean isHelperOrBuiltin(String variable) {
-        return variable.startsWith("#") || 
-               variable.startsWith("/") || 
-               variable.startsWith("@") ||
-               variable.equals("this") ||
-               variable.equals(".");
-    }
-
-    private String extractParamName(String variable) {
-        int dotIndex = variable.indexOf('.');
-        if (dotIndex > 0) {
-            return variable.substring(0, dotIndex);
-        }
-        return variable;
+    public record Analysis(String content, Template template, Map<String, Object> parameters) {
     }
 }
@@ -0,0 +1,27 @@
+package com.corems.templatems.app.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TemplateMetricsConfigTest {
+
+    @Test
+    void templateIdTagLimit_ShouldFoldTemplatesBeyondTheLimitIntoOther() {
+        TemplateServiceProperties properties = new TemplateServiceProperties();
+        properties.getMetrics().setMaxTemplateIds(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new TemplateMetricsConfig().templateIdTagLimit(properties));
+
+        for (String templateId : new String[] {"a", "b", "c", "d", "a"}) {
+            registry.counter("templates.render.errors", "templateId", templateId).increment();
+        }
+        registry.counter("http.server.requests", "templateId", "e").increment();
+
+        assertThat(registry.get("templates.render.errors").tag("templateId", "a").counter().count()).isEqualTo(2);
+        assertThat(registry.get("templates.render.errors").tag("templateId", "b").counter().count()).isEqualTo(1);
+        assertThat(registry.get("templates.render.errors").tag("templateId", "other").counter().count()).isEqualTo(2);
+        assertThat(registry.get("http.server.requests").tag("templateId", "e").counter().count()).isEqualTo(1);
+    }
+}
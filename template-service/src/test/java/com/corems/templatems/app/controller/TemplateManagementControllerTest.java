@@ -1,20 +1,30 @@
 package com.corems.templatems.app.controller;
 
 import com.corems.templatems.api.model.CreateTemplateRequest;
+import com.corems.templatems.api.model.TemplateCategory;
 import com.corems.templatems.api.model.TemplateResponse;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.service.TemplateBulkUpsertService;
 import com.corems.templatems.app.service.TemplateManagementService;
+import com.corems.templatems.app.service.TemplateRenderingService;
+import com.corems.templatems.app.service.TemplateSnapshot;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +33,15 @@ class TemplateManagementControllerTest {
     @Mock
     private TemplateManagementService templateManagementService;
 
+    @Mock
+    private TemplateBulkUpsertService templateBulkUpsertService;
+
+    @Mock
+    private TemplateRenderingService templateRenderingService;
+
+    @Spy
+    private TemplateServiceProperties properties = new TemplateServiceProperties();
+
     @InjectMocks
     private TemplateManagementController templateManagementController;
 
@@ -47,4 +66,38 @@ class TemplateManagementControllerTest {
         assertThat(result.getBody()).isNotNull();
         assertThat(result.getBody().getTemplateId()).isEqualTo("test-template");
     }
+
+    @Test
+    void getTemplate_ShouldReturnBodyWithETagAndCacheControl() {
+        TemplateSnapshot snapshot = snapshot();
+        TemplateResponse response = new TemplateResponse().id(snapshot.uuid()).templateId("test-template");
+        when(templateManagementService.getTemplateById(snapshot.uuid())).thenReturn(snapshot);
+        when(templateRenderingService.toTemplateResponse(snapshot)).thenReturn(response);
+
+        ResponseEntity<TemplateResponse> result = templateManagementController.getTemplate(snapshot.uuid(), Optional.empty());
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getETag()).isEqualTo(snapshot.etag());
+        assertThat(result.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+        assertThat(result.getBody()).isSameAs(response);
+    }
+
+    @Test
+    void getTemplate_WhenETagMatches_ShouldReturnNotModified() {
+        TemplateSnapshot snapshot = snapshot();
+        when(templateManagementService.getTemplateById(snapshot.uuid())).thenReturn(snapshot);
+
+        ResponseEntity<TemplateResponse> result = templateManagementController.getTemplate(snapshot.uuid(),
+            Optional.of("W/" + snapshot.etag()));
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(result.getHeaders().getETag()).isEqualTo(snapshot.etag());
+        assertThat(result.getBody()).isNull();
+        verify(templateRenderingService, never()).toTemplateResponse(any());
+    }
+
+    private static TemplateSnapshot snapshot() {
+        return new TemplateSnapshot(UUID.randomUUID(), "test-template", "en", "Test Template", null,
+            TemplateCategory.EMAIL, 3L, "<html>{{name}}</html>", Map.of());
+    }
 }
@@ -2,22 +2,56 @@ package com.corems.templatems.app.controller;
 
 import com.corems.templatems.api.model.RenderTemplateRequest;
 import com.corems.templatems.api.model.RenderTemplateResponse;
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.service.ParamValidator;
+import com.corems.templatems.app.service.TemplateBatchRenderingService;
 import com.corems.templatems.app.service.TemplateRenderingService;
+import com.corems.templatems.app.service.TemplateSnapshot;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.function.ThrowingSupplier;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class TemplateRenderingControllerTest {
@@ -25,6 +59,9 @@ class TemplateRenderingControllerTest {
     @Mock
     private TemplateRenderingService templateRenderingService;
 
+    @Mock
+    private TemplateBatchRenderingService templateBatchRenderingService;
+
     @InjectMocks
     private TemplateRenderingController templateRenderingController;
 
@@ -36,12 +73,13 @@ class TemplateRenderingControllerTest {
         RenderTemplateResponse response = new RenderTemplateResponse();
         response.setHtml("<html><body>Hello John!</body></html>");
 
-        when(templateRenderingService.renderTemplate("test-template", null, request))
+        when(templateRenderingService.renderTemplate("test-template", null, null, request))
             .thenReturn(response);
 
         ResponseEntity<RenderTemplateResponse> result = templateRenderingController.renderTemplate(
             "test-template",
             request,
+            Optional.empty(),
             Optional.empty()
         );
 
@@ -49,4 +87,126 @@ class TemplateRenderingControllerTest {
         assertThat(result.getBody()).isNotNull();
         assertThat(result.getBody().getHtml()).contains("Hello John!");
     }
+
+    @Test
+    void renderTemplateHtml_ShouldWriteHtmlToResponse() throws Exception {
+        RenderTemplateRequest request = new RenderTemplateRequest();
+        request.setParams(Map.of("name", "John"));
+
+        doAnswer(invocation -> {
+            ThrowingSupplier<Writer> writer = invocation.getArgument(4);
+            writer.get().write("<html><body>Hello John!</body></html>");
+            return null;
+        }).when(templateRenderingService).renderTemplate(eq("test-template"), isNull(), isNull(), eq(request), any());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseEntity<String> result = new TemplateRenderingController(templateRenderingService, null, new TemplateServiceProperties(),
+            new ServletWebRequest(new MockHttpServletRequest(), response))
+            .renderTemplateHtml("test-template", request, Optional.empty(), Optional.empty());
+
+        assertThat(result).isNull();
+
+        assertThat(response.getContentType()).startsWith(MediaType.TEXT_HTML_VALUE);
+        assertThat(response.getCharacterEncoding()).isEqualTo("UTF-8");
+        assertThat(response.getContentAsString()).contains("Hello John!");
+    }
+
+    @Test
+    void renderTemplateStream_ShouldStreamRequestBodyIntoResponse() throws Exception {
+        // The controller writes to the current request's response, as the request-scoped NativeWebRequest does.
+        NativeWebRequest currentRequest = mock(NativeWebRequest.class);
+        when(currentRequest.getNativeResponse(HttpServletResponse.class))
+            .thenAnswer(invocation -> ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getResponse());
+        doAnswer(invocation -> {
+            InputStream input = invocation.getArgument(3);
+            OutputStream output = invocation.getArgument(4);
+            input.transferTo(output);
+            return null;
+        }).when(templateBatchRenderingService).renderStream(eq("test-template"), eq("en"), isNull(), any(), any());
+
+        MockMvcBuilders.standaloneSetup(new TemplateRenderingController(templateRenderingService, templateBatchRenderingService,
+                new TemplateServiceProperties(), currentRequest)).build()
+            .perform(post("/api/templates/test-template/render/stream?language=en")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"name\":\"Ada\"}\n{\"name\":\"Grace\"}\n"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string("{\"name\":\"Ada\"}\n{\"name\":\"Grace\"}\n"));
+    }
+
+    @Test
+    void getTemplateByTemplateId_ShouldReturnBodyAndETagOfTheSameSnapshot() throws Exception {
+        TemplateSnapshot snapshot = snapshot(false);
+        when(templateRenderingService.getTemplate("test-template", null, null)).thenReturn(snapshot);
+        when(templateRenderingService.toTemplateResponse(snapshot)).thenCallRealMethod();
+
+        mockMvc().perform(get("/api/templates/test-template/fetch"))
+            .andExpect(status().isOk())
+            .andExpect(header().stringValues(HttpHeaders.ETAG, snapshot.etag()))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+            .andExpect(jsonPath("$.id").value(snapshot.uuid().toString()))
+            .andExpect(jsonPath("$.content").value("Hello {{name}}"))
+            .andExpect(jsonPath("$.contentLength").value(14));
+    }
+
+    @Test
+    void getTemplateByTemplateId_WhenETagMatches_ShouldReturnNotModifiedWithoutMappingTemplate() throws Exception {
+        TemplateSnapshot snapshot = snapshot(false);
+        when(templateRenderingService.getTemplate("test-template", "de", null)).thenReturn(snapshot);
+
+        mockMvc().perform(get("/api/templates/test-template/fetch").param("language", "de")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"abc-2\", W/" + snapshot.etag()))
+            .andExpect(status().isNotModified())
+            .andExpect(header().stringValues(HttpHeaders.ETAG, snapshot.etag()))
+            .andExpect(content().string(""));
+        verify(templateRenderingService, never()).toTemplateResponse(any());
+    }
+
+    @Test
+    void getTemplateByTemplateId_WhenETagIsStale_ShouldReturnTemplate() throws Exception {
+        TemplateSnapshot snapshot = snapshot(false);
+        when(templateRenderingService.getTemplate("test-template", null, null)).thenReturn(snapshot);
+        when(templateRenderingService.toTemplateResponse(snapshot)).thenCallRealMethod();
+
+        mockMvc().perform(get("/api/templates/test-template/fetch").header(HttpHeaders.IF_NONE_MATCH, "\"abc-2\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, snapshot.etag()))
+            .andExpect(jsonPath("$.templateId").value("test-template"));
+    }
+
+    @Test
+    void getTemplateByTemplateId_WithRevision_ShouldBeCacheableIndefinitely() throws Exception {
+        TemplateSnapshot snapshot = snapshot(true);
+        when(templateRenderingService.getTemplate("test-template", null, 2)).thenReturn(snapshot);
+        when(templateRenderingService.toTemplateResponse(snapshot)).thenCallRealMethod();
+
+        mockMvc().perform(get("/api/templates/test-template/fetch").param("revision", "2"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, snapshot.etag()))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, private, immutable"))
+            .andExpect(jsonPath("$.revision").value(2));
+    }
+
+    @Test
+    void getTemplateMetadata_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+        TemplateSnapshot snapshot = snapshot(false);
+        when(templateRenderingService.getTemplate("test-template", null, null)).thenReturn(snapshot);
+
+        mockMvc().perform(get("/api/templates/test-template/metadata").header(HttpHeaders.IF_NONE_MATCH, snapshot.etag()))
+            .andExpect(status().isNotModified())
+            .andExpect(header().stringValues(HttpHeaders.ETAG, snapshot.etag()));
+        verify(templateRenderingService, never()).toTemplateMetadata(any());
+    }
+
+    private MockMvc mockMvc() {
+        return MockMvcBuilders.standaloneSetup(new TemplateRenderingController(templateRenderingService, null,
+            new TemplateServiceProperties(), new ServletWebRequest(new MockHttpServletRequest()))).build();
+    }
+
+    private static TemplateSnapshot snapshot(boolean pinned) {
+        return new TemplateSnapshot(UUID.randomUUID(), "test-template", "en", "Test", null, TemplateCategory.EMAIL,
+            pinned ? 2L : 3L, "Hello {{name}}", TemplateEntity.sha256("Hello {{name}}"), Map.of(),
+            ParamValidator.compile(Map.of()), pinned ? 2 : 3, pinned,
+            new TemplateSnapshot.Audit(Instant.EPOCH, Instant.EPOCH, null, null));
+    }
 }
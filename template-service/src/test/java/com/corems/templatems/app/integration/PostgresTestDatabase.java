@@ -0,0 +1,74 @@
+package com.corems.templatems.app.integration;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleDescriptor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One Postgres container per test run with {@code migrations/setup} applied to the {@code template_ms} schema,
+ * for tests of queries that only Postgres can run (full-text search, trigram indexes, multi-row upserts).
+ * Test classes using it are named {@code *PostgresTest} and annotated
+ * {@code @Testcontainers(disabledWithoutDocker = true)}.
+ */
+final class PostgresTestDatabase {
+
+    static final String SCHEMA = "template_ms";
+
+    private static final Path MIGRATIONS = Path.of("../migrations/setup");
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private PostgresTestDatabase() {
+    }
+
+    static void register(DynamicPropertyRegistry registry) {
+        start();
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl() + "&currentSchema=" + SCHEMA);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.properties.hibernate.default_schema", () -> SCHEMA);
+    }
+
+    private static synchronized void start() {
+        if (POSTGRES.isRunning()) {
+            return;
+        }
+        POSTGRES.start();
+        try (Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+            for (Path migration : migrations()) {
+                statement.execute(Files.readString(migration));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not apply migrations", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Path> migrations() throws IOException {
+        try (Stream<Path> files = Files.list(MIGRATIONS)) {
+            return files.filter(file -> file.getFileName().toString().matches("V.+__.+\\.sql"))
+                    .sorted(Comparator.comparing(PostgresTestDatabase::version))
+                    .toList();
+        }
+    }
+
+    private static ModuleDescriptor.Version version(Path migration) {
+        String name = migration.getFileName().toString();
+        return ModuleDescriptor.Version.parse(name.substring(1, name.indexOf("__")));
+    }
+}
@@ -0,0 +1,126 @@
+package com.corems.templatems.app.integration;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.repository.TemplateBulkRepository;
+import com.corems.templatems.app.repository.TemplateRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(TemplateBulkRepository.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class TemplateBulkUpsertPostgresTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @Autowired
+    private TemplateBulkRepository templateBulkRepository;
+    @Autowired
+    private TemplateRepository templateRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void upsert_ShouldCreateRowsWithFirstRevisionAndReadTimestampsBackAsWritten() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+        List<TemplateBulkRepository.UpsertedTemplate> upserted = templateBulkRepository.upsert(
+            List.of(row("welcome", "en", "Hello {{name}} 👋"), row("welcome", "de", "Hallo {{name}}")), USER_ID, now);
+
+        assertThat(upserted).hasSize(2).allSatisfy(template -> {
+            assertThat(template.created()).isTrue();
+            assertThat(template.revision()).isEqualTo(1);
+        });
+        TemplateEntity english = templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("welcome", "en").orElseThrow();
+        assertThat(english.getCreatedAt()).isEqualTo(now);
+        assertThat(english.getUpdatedAt()).isEqualTo(now);
+        assertThat(english.getCreatedBy()).isEqualTo(USER_ID);
+        assertThat(english.getContentLength()).isEqualTo(TemplateEntity.contentLength("Hello {{name}} 👋"));
+        assertThat(revisions(english.getUuid())).containsExactly(1);
+    }
+
+    @Test
+    void upsert_ShouldSkipUnchangedRowsAndVersionChangedOnes() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        templateBulkRepository.upsert(List.of(row("welcome", "en", "Hello"), row("order", "en", "Order")), USER_ID, now);
+
+        List<TemplateBulkRepository.UpsertedTemplate> upserted = templateBulkRepository.upsert(
+            List.of(row("welcome", "en", "Hello"), row("order", "en", "Order {{id}}")), USER_ID, now.plusSeconds(60));
+
+        assertThat(upserted).singleElement().satisfies(template -> {
+            assertThat(template.templateId()).isEqualTo("order");
+            assertThat(template.created()).isFalse();
+            assertThat(template.revision()).isEqualTo(2);
+        });
+        TemplateEntity order = templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("order", "en").orElseThrow();
+        assertThat(order.getVersion()).isEqualTo(upserted.get(0).version());
+        assertThat(order.getCreatedAt()).isEqualTo(now);
+        assertThat(order.getUpdatedAt()).isEqualTo(now.plusSeconds(60));
+        assertThat(revisions(order.getUuid())).containsExactly(1, 2);
+    }
+
+    @Test
+    void upsert_ShouldRestoreDeletedRowWithUnchangedContent() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        templateBulkRepository.upsert(List.of(row("welcome", "en", "Hello")), USER_ID, now);
+        jdbcTemplate.update("UPDATE template SET is_deleted = TRUE WHERE template_id = 'welcome'");
+
+        List<TemplateBulkRepository.UpsertedTemplate> upserted = templateBulkRepository.upsert(
+            List.of(row("welcome", "en", "Hello")), USER_ID, now);
+
+        assertThat(upserted).singleElement().satisfies(template -> assertThat(template.revision()).isEqualTo(2));
+        assertThat(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("welcome", "en")).isPresent();
+    }
+
+    @Test
+    void upsert_ShouldNumberRevisionsPerTemplateNotPerKey() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        templateBulkRepository.upsert(List.of(row("welcome", "en", "Hello")), USER_ID, now);
+        jdbcTemplate.update("UPDATE template SET template_id = 'hello' WHERE template_id = 'welcome'");
+
+        List<TemplateBulkRepository.UpsertedTemplate> upserted = templateBulkRepository.upsert(
+            List.of(row("welcome", "en", "Welcome"), row("hello", "en", "Hello {{name}}")), USER_ID, now);
+
+        assertThat(upserted).extracting(TemplateBulkRepository.UpsertedTemplate::templateId,
+                TemplateBulkRepository.UpsertedTemplate::revision)
+            .containsExactlyInAnyOrder(tuple("welcome", 1), tuple("hello", 2));
+        TemplateEntity renamed = templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("hello", "en").orElseThrow();
+        assertThat(revisions(renamed.getUuid())).containsExactly(1, 2);
+    }
+
+    private List<Integer> revisions(UUID templateUuid) {
+        return jdbcTemplate.queryForList("SELECT revision FROM template_revision WHERE template_uuid = ? ORDER BY revision",
+            Integer.class, templateUuid);
+    }
+
+    private static TemplateBulkRepository.TemplateRow row(String templateId, String language, String content) {
+        return new TemplateBulkRepository.TemplateRow(templateId, language, templateId, null, content,
+            TemplateEntity.sha256(content), TemplateCategory.EMAIL, Map.of());
+    }
+}
@@ -91,7 +91,7 @@ class TemplateMsApiIntegrationTest {
     @Test
     @Order(2)
     void getTemplate_WhenExists_ShouldReturnTemplate() {
-        TemplateResponse response = templateManagementApi.getTemplate(welcomeEmailTemplateId);
+        TemplateResponse response = templateManagementApi.getTemplate(welcomeEmailTemplateId, null);
 
         assertThat(response).isNotNull();
         assertThat(response.getTemplateId()).isEqualTo("welcome-email");
@@ -117,16 +117,23 @@ class TemplateMsApiIntegrationTest {
         RenderTemplateRequest renderRequest = new RenderTemplateRequest()
                 .params(Map.of("user", Map.of("name", "John")));
 
-        RenderTemplateResponse response = templateRenderingApi.renderTemplate("welcome-email", renderRequest, "en");
+        RenderTemplateResponse response = templateRenderingApi.renderTemplate("welcome-email", renderRequest, "en", null);
 
         assertThat(response).isNotNull();
         assertThat(response.getHtml()).contains("Welcome");
+        assertThat(response.getRevision()).isEqualTo(2);
+
+        RenderTemplateResponse pinned = templateRenderingApi.renderTemplate("welcome-email",
+                new RenderTemplateRequest().params(Map.of("user", Map.of("firstName", "Ann"))), "en", 1);
+
+        assertThat(pinned.getHtml()).contains("Welcome, Ann!");
+        assertThat(pinned.getRevision()).isEqualTo(1);
     }
 
     @Test
     @Order(5)
     void getTemplateMetadata_WhenExists_ShouldReturnMetadata() {
-        TemplateMetadataResponse response = templateRenderingApi.getTemplateMetadata("welcome-email", "en");
+        TemplateMetadataResponse response = templateRenderingApi.getTemplateMetadata("welcome-email", "en", null, null);
 
         assertThat(response).isNotNull();
         assertThat(response.getTemplateId()).isEqualTo("welcome-email");
@@ -137,7 +144,7 @@ class TemplateMsApiIntegrationTest {
     void deleteTemplate_WhenExists_ShouldSoftDelete() {
         templateManagementApi.deleteTemplate(welcomeEmailTemplateId);
 
-        assertThatThrownBy(() -> templateManagementApi.getTemplate(welcomeEmailTemplateId))
+        assertThatThrownBy(() -> templateManagementApi.getTemplate(welcomeEmailTemplateId, null))
             .isInstanceOf(RestClientResponseException.class)
             .satisfies(ex -> assertThat(((RestClientResponseException) ex).getStatusCode().value()).isEqualTo(404));
     }
@@ -0,0 +1,131 @@
+package com.corems.templatems.app.integration;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.api.model.TemplatePagedResponse;
+import com.corems.templatems.api.model.TemplateResponse;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.repository.TemplateRepository;
+import com.corems.templatems.app.service.RenderingEngine;
+import com.corems.templatems.app.service.TemplateInvalidationBus;
+import com.corems.templatems.app.service.TemplateManagementService;
+import com.corems.templatems.app.service.TemplateValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(TemplateManagementService.class)
+class TemplateSearchPostgresTest {
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    @MockBean
+    private TemplateValidator templateValidator;
+    @MockBean
+    private RenderingEngine renderingEngine;
+    @MockBean
+    private TemplateInvalidationBus templateInvalidationBus;
+
+    @Autowired
+    private TemplateRepository templateRepository;
+    @Autowired
+    private TemplateManagementService templateManagementService;
+
+    @BeforeEach
+    void setUp() {
+        save("billing-monthly", "Invoice", "Monthly billing run", TemplateCategory.EMAIL, false);
+        save("billing-statement", "Statement", "Invoice summary for the period", TemplateCategory.EMAIL, false);
+        save("reinvoiced-notice", "Correction", "Sent after a correction", TemplateCategory.EMAIL, false);
+        save("billing-sms", "Invoice reminder", "Short reminder", TemplateCategory.SMS, false);
+        save("billing-legacy", "Invoice legacy", "Replaced by billing-monthly", TemplateCategory.EMAIL, true);
+        save("promo_50", "Promo", "Half price", TemplateCategory.EMAIL, false);
+        save("promo-500", "Promo", "Big discount", TemplateCategory.EMAIL, false);
+        templateRepository.flush();
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesBeforeDescriptionAndSubstringMatches() {
+        List<String> ids = search("invoice", Optional.empty(), List.of(), Optional.empty());
+
+        assertThat(ids).hasSize(5);
+        assertThat(ids.subList(0, 3)).containsExactlyInAnyOrder("billing-monthly", "billing-sms", "billing-legacy");
+        assertThat(ids.subList(3, 5)).containsExactly("billing-statement", "reinvoiced-notice");
+    }
+
+    @Test
+    void search_ShouldApplyEveryFilter() {
+        assertThat(search("invoice", Optional.empty(), List.of("isDeleted:true"), Optional.empty()))
+            .containsExactly("billing-legacy");
+        assertThat(search("invoice", Optional.empty(), List.of("category:SMS", "language:en"), Optional.empty()))
+            .containsExactly("billing-sms");
+        assertThat(search("invoice", Optional.empty(), List.of("language:de"), Optional.empty()))
+            .isEmpty();
+    }
+
+    @Test
+    void search_ShouldReplaceRelevanceWithExplicitSort() {
+        List<String> ids = search("invoice", Optional.of("templateId:desc"), List.of("isDeleted:false"), Optional.empty());
+
+        assertThat(ids).containsExactly("reinvoiced-notice", "billing-statement", "billing-sms", "billing-monthly");
+    }
+
+    @Test
+    void search_ShouldMatchWebQueryTermsInAnyOrder() {
+        assertThat(search("reminder invoice", Optional.empty(), List.of(), Optional.empty())).containsExactly("billing-sms");
+    }
+
+    @Test
+    void search_ShouldMatchLikeWildcardsLiterally() {
+        assertThat(search("o_5", Optional.empty(), List.of(), Optional.empty())).containsExactly("promo_50");
+    }
+
+    @Test
+    void search_ShouldPageAndCountSummaries() {
+        TemplatePagedResponse response = templateManagementService.listTemplates(Optional.of(2), Optional.of(2),
+            Optional.empty(), Optional.of("invoice"), Optional.of(List.of("isDeleted:false")), Optional.of("summary"));
+
+        assertThat(response.getTotalElements()).isEqualTo(4);
+        assertThat(response.getTotalPages()).isEqualTo(2);
+        assertThat(response.getItems()).hasSize(2).allSatisfy(item -> assertThat(item.getContent()).isNull());
+    }
+
+    private List<String> search(String term, Optional<String> sort, List<String> filter, Optional<String> view) {
+        return templateManagementService.listTemplates(Optional.empty(), Optional.empty(), sort, Optional.of(term),
+                Optional.of(filter), view)
+            .getItems().stream()
+            .map(TemplateResponse::getTemplateId)
+            .toList();
+    }
+
+    private void save(String templateId, String name, String description, TemplateCategory category, boolean deleted) {
+        templateRepository.save(TemplateEntity.builder()
+            .templateId(templateId)
+            .language("en")
+            .name(name)
+            .description(description)
+            .content("Hello {{name}}")
+            .category(category)
+            .paramSchema(Map.of())
+            .revision(1)
+            .isDeleted(deleted)
+            .build());
+    }
+}
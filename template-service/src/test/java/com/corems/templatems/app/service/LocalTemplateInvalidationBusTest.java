@@ -0,0 +1,130 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.repository.TemplateRepository;
+import com.corems.templatems.app.repository.TemplateRevisionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the bus against the real cache listeners, so a published invalidation has to reach both the
+ * snapshot cache and the compiled-template cache through the application event.
+ */
+class LocalTemplateInvalidationBusTest {
+
+    private final TemplateRepository templateRepository = mock(TemplateRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AnnotationConfigApplicationContext context;
+    private TemplateInvalidationBus bus;
+    private TemplateSnapshotCache templateSnapshotCache;
+    private RenderingEngine renderingEngine;
+
+    @BeforeEach
+    void setUp() {
+        TemplateServiceProperties properties = new TemplateServiceProperties();
+        context = new AnnotationConfigApplicationContext();
+        TestPropertyValues.of("template-service.cache.invalidation.mode=local").applyTo(context);
+        context.registerBean(TemplateSnapshotCache.class,
+            () -> new TemplateSnapshotCache(templateRepository, mock(TemplateRevisionRepository.class), properties));
+        context.registerBean(RenderingEngine.class, () -> new RenderingEngine(properties,
+            context.getBean(TemplateSnapshotCache.class), new TemplateRenderMetrics(meterRegistry)));
+        context.registerBean(LocalTemplateInvalidationBus.class);
+        context.refresh();
+
+        bus = context.getBean(TemplateInvalidationBus.class);
+        templateSnapshotCache = context.getBean(TemplateSnapshotCache.class);
+        renderingEngine = context.getBean(RenderingEngine.class);
+
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en"))
+            .thenReturn(Optional.of(entity()));
+        render();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        context.close();
+    }
+
+    @Test
+    void publish_ShouldInvalidateImmediatelyOutsideTransaction() {
+        bus.publish(new TemplateInvalidation("welcome-email", "en", 2L));
+        render();
+
+        verify(templateRepository, times(2)).findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en");
+        assertThat(compilations()).isEqualTo(2);
+    }
+
+    @Test
+    void publish_ShouldInvalidateBothCachesAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish(new TemplateInvalidation("welcome-email", "en", 2L));
+        render();
+
+        // Until the transaction commits, readers keep the snapshot and the compiled template.
+        verify(templateRepository, times(1)).findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en");
+        assertThat(compilations()).isEqualTo(1);
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationManager.clearSynchronization();
+        render();
+
+        verify(templateRepository, times(2)).findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en");
+        assertThat(compilations()).isEqualTo(2);
+    }
+
+    @Test
+    void publish_ShouldNotInvalidateOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        bus.publish(new TemplateInvalidation("welcome-email", "en", 2L));
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+            TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+        render();
+
+        verify(templateRepository, times(1)).findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en");
+        assertThat(compilations()).isEqualTo(1);
+    }
+
+    private void render() {
+        renderingEngine.render(templateSnapshotCache.get("welcome-email", "en"), Map.of("name", "Ann"));
+    }
+
+    private double compilations() {
+        return meterRegistry.get(TemplateRenderMetrics.COMPILATIONS).tag("cause", "miss").counter().count();
+    }
+
+    private static TemplateEntity entity() {
+        return TemplateEntity.builder()
+                .uuid(UUID.randomUUID())
+                .templateId("welcome-email")
+                .language("en")
+                .name("Welcome Email")
+                .category(TemplateCategory.EMAIL)
+                .content("Hello {{name}}")
+                .version(1L)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParamValidatorTest {
+
+    private final ParamValidator validator = ParamValidator.compile(Map.of(
+        "name", Map.of("required", true, "type", "string"),
+        "zip", Map.of("type", "string", "pattern", "\\d{5}"),
+        "count", Map.of("type", "number"),
+        "user", Map.of("required", true, "type", "object"),
+        "items", Map.of("type", "array")
+    ));
+
+    @Test
+    void validate_WhenParamsMatchSchema_ShouldPass() {
+        assertThatCode(() -> validator.validate(Map.of(
+            "name", "John",
+            "zip", 12345,
+            "count", 3,
+            "user", Map.of("firstName", "John"),
+            "items", List.of("a")
+        ))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void validate_WhenRequiredParamMissing_ShouldReportAllMissing() {
+        assertThatThrownBy(() -> validator.validate(Map.of("count", 1)))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("name")
+            .hasMessageContaining("user");
+    }
+
+    @Test
+    void validate_WhenTypeOrPatternMismatch_ShouldReject() {
+        assertThatThrownBy(() -> validator.validate(Map.of("name", "John", "user", "not-an-object")))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("user (expected object)");
+        assertThatThrownBy(() -> validator.validate(Map.of("name", "John", "user", Map.of(), "zip", "ABCDE")))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("zip (must match");
+    }
+
+    @Test
+    void compile_WhenSchemaMalformed_ShouldReject() {
+        assertThatThrownBy(() -> ParamValidator.compile(Map.of("zip", Map.of("pattern", "[0-9"))))
+            .isInstanceOf(ServiceException.class);
+        assertThatThrownBy(() -> ParamValidator.compile(Map.of("zip", Map.of("type", "date"))))
+            .isInstanceOf(ServiceException.class);
+    }
+
+    @Test
+    void compileStored_WhenStoredSchemaMalformed_ShouldSkipInvalidConstraints() {
+        ParamValidator stored = ParamValidator.compileStored("legacy-email:en", Map.of(
+            "zip", Map.of("required", true, "type", "string", "pattern", "[0-9"),
+            "sentAt", Map.of("type", "date")
+        ));
+
+        assertThatCode(() -> stored.validate(Map.of("zip", "ABCDE", "sentAt", Map.of("epoch", 0))))
+            .doesNotThrowAnyException();
+        assertThatThrownBy(() -> stored.validate(Map.of("zip", List.of())))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("zip (expected string)");
+        assertThatThrownBy(() -> stored.validate(Map.of()))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("zip");
+    }
+
+    @Test
+    void validate_WhenParamUntyped_ShouldAcceptAnyValue() {
+        // A pre-existing schema for "{{user.name}} ({{code}})" after migration V1.0.6 dropped the legacy string type.
+        ParamValidator legacy = ParamValidator.compileStored("legacy-email:en", Map.of(
+            "user", Map.of("required", true),
+            "code", Map.of("required", true, "type", "string"),
+            "ref", Map.of("pattern", "[A-Z]+")
+        ));
+
+        assertThatCode(() -> legacy.validate(Map.of("user", Map.of("name", "Ann"), "code", "42")))
+            .doesNotThrowAnyException();
+        assertThatCode(() -> legacy.validate(Map.of("user", "Ann", "code", "42", "ref", Map.of())))
+            .doesNotThrowAnyException();
+        assertThatThrownBy(() -> legacy.validate(Map.of("user", Map.of(), "code", "42", "ref", "abc")))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("ref (must match");
+    }
+}
@@ -0,0 +1,117 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RenderedOutputCacheTest {
+
+    private RenderedOutputCache renderedOutputCache;
+
+    @BeforeEach
+    void setUp() {
+        TemplateServiceProperties properties = new TemplateServiceProperties();
+        properties.getCache().getOutput().setEnabled(true);
+        properties.getCache().getOutput().setCategories(List.of(TemplateCategory.SMS));
+        renderedOutputCache = new RenderedOutputCache(properties);
+    }
+
+    @Test
+    void get_ShouldReuseOutputForEqualParamsUntilVersionOrTemplatesChange() {
+        AtomicInteger renders = new AtomicInteger();
+        TemplateSnapshot v1 = snapshot(TemplateCategory.SMS, 1L);
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("name", "Ann");
+        params.put("count", 2);
+
+        assertThat(renderedOutputCache.get(v1, params, () -> "out-" + renders.incrementAndGet())).isEqualTo("out-1");
+        assertThat(renderedOutputCache.get(v1, Map.of("count", 2, "name", "Ann"), () -> "out-" + renders.incrementAndGet()))
+            .isEqualTo("out-1");
+        assertThat(renderedOutputCache.get(v1, Map.of("count", "2", "name", "Ann"), () -> "out-" + renders.incrementAndGet()))
+            .isEqualTo("out-2");
+        assertThat(renderedOutputCache.get(snapshot(TemplateCategory.SMS, 2L), params, () -> "out-" + renders.incrementAndGet()))
+            .isEqualTo("out-3");
+
+        renderedOutputCache.onTemplateInvalidation(new TemplateInvalidation("footer", "en", 2L));
+        assertThat(renderedOutputCache.get(v1, params, () -> "out-" + renders.incrementAndGet())).isEqualTo("out-4");
+    }
+
+    @Test
+    void get_ShouldRenderConcurrentIdenticalRequestsOnce() throws Exception {
+        TemplateSnapshot snapshot = snapshot(TemplateCategory.SMS, 1L);
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> renderedOutputCache.get(snapshot, Map.of("code", "A"), () -> {
+                    renders.incrementAndGet();
+                    rendering.countDown();
+                    await(release);
+                    return "Notice A";
+                })));
+            }
+            assertThat(rendering.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Notice A");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void get_ShouldNotCacheFailedRenders() {
+        TemplateSnapshot snapshot = snapshot(TemplateCategory.SMS, 1L);
+
+        assertThatThrownBy(() -> renderedOutputCache.get(snapshot, Map.of(), () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+
+        assertThat(renderedOutputCache.get(snapshot, Map.of(), () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    void appliesTo_ShouldOnlyMatchConfiguredTemplates() {
+        assertThat(renderedOutputCache.appliesTo(snapshot(TemplateCategory.SMS, 1L))).isTrue();
+        assertThat(renderedOutputCache.appliesTo(snapshot(TemplateCategory.EMAIL, 1L))).isFalse();
+        assertThat(new RenderedOutputCache(new TemplateServiceProperties()).appliesTo(snapshot(TemplateCategory.SMS, 1L)))
+            .isFalse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TemplateSnapshot snapshot(TemplateCategory category, long version) {
+        return new TemplateSnapshot(UUID.nameUUIDFromBytes(new byte[0]), "system-notice", "en", "system-notice", null,
+            category, version, "{{code}}", Map.of());
+    }
+}
@@ -0,0 +1,209 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.exception.ServiceException;
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.entity.TemplateEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoublePredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RenderingEngineTest {
+
+    @Mock
+    private TemplateSnapshotCache templateSnapshotCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RenderingEngine renderingEngine;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        renderingEngine = new RenderingEngine(new TemplateServiceProperties(), templateSnapshotCache,
+            new TemplateRenderMetrics(meterRegistry));
+    }
+
+    @Test
+    void render_ShouldResolvePartialsInTheTemplateLanguage() {
+        TemplateSnapshot email = snapshot("welcome-email", "de", 1L, "{{> header}}<p>Hallo {{name}}</p>");
+        when(templateSnapshotCache.findLocalized("header", "de"))
+            .thenReturn(Optional.of(snapshot("header", "de", 1L, "<h1>{{company}}</h1>")));
+
+        String html = renderingEngine.render(email, Map.of("name", "John", "company", "CoreMS"));
+
+        assertThat(html).isEqualTo("<h1>CoreMS</h1><p>Hallo John</p>");
+    }
+
+    @Test
+    void render_ShouldPickUpNewPartialVersionWithoutRecompilingParent() {
+        TemplateSnapshot email = snapshot("welcome-email", "en", 1L, "{{> footer}}");
+        when(templateSnapshotCache.findLocalized("footer", "en"))
+            .thenReturn(Optional.of(snapshot("footer", "en", 1L, "v1")))
+            .thenReturn(Optional.of(snapshot("footer", "en", 2L, "v2")));
+
+        assertThat(renderingEngine.render(email, Map.of())).isEqualTo("v1");
+        assertThat(renderingEngine.render(email, Map.of())).isEqualTo("v2");
+    }
+
+    @Test
+    void render_ShouldFailWhenPartialIsMissing() {
+        TemplateSnapshot email = snapshot("welcome-email", "en", 1L, "{{> missing}}");
+        when(templateSnapshotCache.findLocalized(any(), any())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> renderingEngine.render(email, Map.of()))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("missing");
+        assertThat(meterRegistry.get(TemplateRenderMetrics.ERRORS)
+            .tags("templateId", "welcome-email", "reason", "template.rendering_failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void render_ShouldRecordStagesOutputSizeAndCompilations() {
+        TemplateSnapshot sms = snapshot("order-sms", "en", 1L, "Order {{id}} shipped");
+
+        renderingEngine.render(sms, Map.of("id", "42"));
+        renderingEngine.render(sms, Map.of("id", "43"));
+        renderingEngine.render(snapshot("order-sms", "en", 2L, "Order {{id}}"), Map.of("id", "44"));
+
+        assertThat(meterRegistry.get(TemplateRenderMetrics.STAGE_TIMER)
+            .tags("templateId", "order-sms", "language", "en", "category", "EMAIL", "stage", "apply").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(TemplateRenderMetrics.OUTPUT_SIZE).summary().totalAmount()).isEqualTo(16 + 16 + 8);
+        assertThat(meterRegistry.get(TemplateRenderMetrics.STAGE_LATENCY).tags("category", "EMAIL", "stage", "apply").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(TemplateRenderMetrics.STAGE_LATENCY).timer().getId().getTag("templateId")).isNull();
+        assertThat(meterRegistry.get(TemplateRenderMetrics.OUTPUT_DISTRIBUTION).summary().totalAmount()).isEqualTo(16 + 16 + 8);
+        assertThat(meterRegistry.get(TemplateRenderMetrics.COMPILATIONS).tag("cause", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TemplateRenderMetrics.COMPILATIONS).tag("cause", "stale").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void render_ShouldCompileIdenticalContentOnce() {
+        String content = "Your code is {{code}}";
+        TemplateSnapshot english = snapshot("otp-sms", "en", 1L, content);
+        TemplateSnapshot german = snapshot("otp-sms", "de", 1L, content);
+        TemplateSnapshot clone = snapshot("tenant-otp-sms", "en", 3L, content);
+
+        assertThat(renderingEngine.render(english, Map.of("code", "1"))).isEqualTo("Your code is 1");
+        assertThat(renderingEngine.render(german, Map.of("code", "2"))).isEqualTo("Your code is 2");
+        assertThat(renderingEngine.render(clone, Map.of("code", "3"))).isEqualTo("Your code is 3");
+
+        // Invalidating one alias keeps the compiled template while others still point at it.
+        renderingEngine.invalidateCache(german.cacheKey());
+        renderingEngine.render(english, Map.of("code", "4"));
+
+        assertThat(meterRegistry.get(TemplateRenderMetrics.COMPILATIONS).tag("cause", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateCache_ShouldDropSharedTemplateWithItsLastAlias() {
+        String content = "Your code is {{code}}";
+        TemplateSnapshot english = snapshot("otp-sms", "en", 1L, content);
+        TemplateSnapshot clone = snapshot("tenant-otp-sms", "en", 1L, content);
+        renderingEngine.render(english, Map.of());
+        renderingEngine.render(clone, Map.of());
+
+        // The English alias moves to new content, leaving the clone as the only alias of the shared template.
+        renderingEngine.render(snapshot("otp-sms", "en", 2L, "Code: {{code}}"), Map.of());
+        renderingEngine.invalidateCache(clone.cacheKey());
+        renderingEngine.render(clone, Map.of());
+
+        assertThat(meterRegistry.get(TemplateRenderMetrics.COMPILATIONS).tag("cause", "miss").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(TemplateRenderMetrics.COMPILATIONS).tag("cause", "stale").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void render_ShouldUsePrimedTemplateWithoutCompiling() throws Exception {
+        String content = "Hello {{name}}";
+        renderingEngine.prime(content, renderingEngine.compile(content));
+
+        assertThat(renderingEngine.render(snapshot("greeting", "en", 1L, content), Map.of("name", "Ann")))
+            .isEqualTo("Hello Ann");
+        assertThat(meterRegistry.get(TemplateRenderMetrics.COMPILATIONS).tag("cause", "miss").counter().count()).isZero();
+    }
+
+    @Test
+    void render_ShouldKeepPinnedRevisionsOutOfTheCurrentAlias() {
+        TemplateSnapshot current = snapshot("order-sms", "en", 2L, "Order {{id}} shipped");
+        TemplateSnapshot pinned = new TemplateSnapshot(current.uuid(), "order-sms", "en", "order-sms", null,
+            TemplateCategory.EMAIL, 1L, "Order {{id}}", TemplateEntity.sha256("Order {{id}}"), Map.of(),
+            ParamValidator.compile(Map.of()), 1, true, TemplateSnapshot.Audit.NONE);
+
+        assertThat(renderingEngine.render(current, Map.of("id", "1"))).isEqualTo("Order 1 shipped");
+        assertThat(renderingEngine.render(pinned, Map.of("id", "2"))).isEqualTo("Order 2");
+        assertThat(renderingEngine.render(current, Map.of("id", "3"))).isEqualTo("Order 3 shipped");
+
+        assertThat(meterRegistry.get(TemplateRenderMetrics.COMPILATIONS).tag("cause", "miss").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(TemplateRenderMetrics.COMPILATIONS).tag("cause", "stale").counter().count()).isZero();
+    }
+
+    @Test
+    void render_ShouldBoundCompiledTemplatesByEntries() throws Exception {
+        TemplateServiceProperties properties = new TemplateServiceProperties();
+        properties.getCache().getCompiled().setMaxEntries(2);
+        RenderingEngine bounded = boundedEngine(properties);
+
+        for (int i = 0; i < 5; i++) {
+            bounded.render(snapshot("sms-" + i, "en", 1L, "Message " + i + " {{code}}"), Map.of("code", "1"));
+        }
+
+        awaitCompiledCache(size -> size <= 2);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "templates.compiled").functionCounter().count())
+            .isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void render_ShouldBoundCompiledTemplatesByContentWeight() throws Exception {
+        TemplateServiceProperties properties = new TemplateServiceProperties();
+        properties.getCache().getCompiled().setMaxWeight(100);
+        RenderingEngine bounded = boundedEngine(properties);
+        String padding = "x".repeat(60);
+
+        bounded.render(snapshot("doc-1", "en", 1L, padding + "{{a}}"), Map.of());
+        bounded.render(snapshot("doc-2", "en", 1L, padding + "{{b}}"), Map.of());
+        bounded.render(snapshot("doc-3", "en", 1L, padding + "{{c}}"), Map.of());
+
+        // Each source is 65 characters, so only one fits in a weight of 100.
+        awaitCompiledCache(size -> size <= 1);
+    }
+
+    private RenderingEngine boundedEngine(TemplateServiceProperties properties) {
+        RenderingEngine engine = new RenderingEngine(properties, templateSnapshotCache, new TemplateRenderMetrics(meterRegistry));
+        engine.bindTo(meterRegistry);
+        return engine;
+    }
+
+    /**
+     * Caffeine evicts during asynchronous maintenance, so the size is polled rather than read once.
+     */
+    private void awaitCompiledCache(DoublePredicate condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        double size;
+        do {
+            size = meterRegistry.get("cache.size").tag("cache", "templates.compiled").gauge().value();
+            if (condition.test(size)) {
+                return;
+            }
+            Thread.sleep(10);
+        } while (System.nanoTime() < deadline);
+        assertThat(condition.test(size)).as("compiled cache size %s", size).isTrue();
+    }
+
+    private static TemplateSnapshot snapshot(String templateId, String language, long version, String content) {
+        return new TemplateSnapshot(UUID.randomUUID(), templateId, language, templateId, null,
+            TemplateCategory.EMAIL, version, content, Map.of());
+    }
+}
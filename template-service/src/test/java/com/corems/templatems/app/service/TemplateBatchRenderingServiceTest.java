@@ -0,0 +1,97 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.api.model.BatchRenderItem;
+import com.corems.templatems.api.model.BatchRenderRequest;
+import com.corems.templatems.api.model.BatchRenderResponse;
+import com.corems.templatems.api.model.BatchRenderResult;
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateBatchRenderingServiceTest {
+
+    @Mock
+    private TemplateRenderingService templateRenderingService;
+
+    @Mock
+    private TemplateSnapshotCache templateSnapshotCache;
+
+    private TemplateBatchRenderingService templateBatchRenderingService;
+
+    @BeforeEach
+    void setUp() {
+        templateBatchRenderingService = new TemplateBatchRenderingService(
+            templateRenderingService, templateSnapshotCache, new SimpleAsyncTaskExecutor(), new ObjectMapper(), new TemplateServiceProperties());
+        lenient().when(templateRenderingService.resolveLanguage(isNull())).thenReturn("en");
+        lenient().when(templateRenderingService.resolveLanguage("en")).thenReturn("en");
+    }
+
+    @Test
+    void renderBatch_ShouldResolveEachTemplateOnceAndReportPerItemResults() {
+        TemplateSnapshot snapshot = new TemplateSnapshot(UUID.randomUUID(), "order-sms", "en", "Order SMS", null,
+            TemplateCategory.SMS, 1L, "Order {{id}}", Map.of());
+        when(templateSnapshotCache.find("order-sms", "en", null)).thenReturn(Optional.of(snapshot));
+        when(templateSnapshotCache.find("missing", "en", null)).thenReturn(Optional.empty());
+        when(templateRenderingService.render(eq(snapshot), anyMap()))
+            .thenAnswer(invocation -> "Order " + ((Map<?, ?>) invocation.getArgument(1)).get("id"));
+
+        BatchRenderRequest request = new BatchRenderRequest().items(List.of(
+            new BatchRenderItem().templateId("order-sms").params(Map.of("id", 1)),
+            new BatchRenderItem().templateId("missing").params(Map.of()),
+            new BatchRenderItem().templateId("order-sms").language("en").params(Map.of("id", 2))
+        ));
+
+        BatchRenderResponse response = templateBatchRenderingService.renderBatch(request);
+
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults()).extracting(BatchRenderResult::getIndex).containsExactly(0, 1, 2);
+        assertThat(response.getResults().get(0).getHtml()).isEqualTo("Order 1");
+        assertThat(response.getResults().get(1).getError()).contains("missing");
+        assertThat(response.getResults().get(2).getHtml()).isEqualTo("Order 2");
+        verify(templateSnapshotCache, times(1)).find("order-sms", "en", null);
+    }
+
+    @Test
+    void renderStream_ShouldWriteOneNdjsonLinePerRecordInInputOrder() throws Exception {
+        TemplateSnapshot snapshot = new TemplateSnapshot(UUID.randomUUID(), "order-sms", "en", "Order SMS", null,
+            TemplateCategory.SMS, 1L, "Order {{id}}", Map.of());
+        when(templateSnapshotCache.get("order-sms", "en", null)).thenReturn(snapshot);
+        when(templateRenderingService.render(eq(snapshot), anyMap()))
+            .thenAnswer(invocation -> "Order " + ((Map<?, ?>) invocation.getArgument(1)).get("id"));
+
+        ByteArrayInputStream input = new ByteArrayInputStream("{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n".getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        templateBatchRenderingService.renderStream("order-sms", null, null, input, output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).contains("\"index\":0").contains("Order 1");
+        assertThat(lines.get(2)).contains("\"index\":2").contains("Order 3");
+    }
+}
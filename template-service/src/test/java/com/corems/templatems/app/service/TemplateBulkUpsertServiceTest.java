@@ -0,0 +1,187 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.security.SecurityUtils;
+import com.corems.common.security.UserPrincipal;
+import com.corems.templatems.api.model.BulkUpsertResult;
+import com.corems.templatems.api.model.BulkUpsertStatus;
+import com.corems.templatems.api.model.BulkUpsertTemplatesRequest;
+import com.corems.templatems.api.model.BulkUpsertTemplatesResponse;
+import com.corems.templatems.api.model.CreateTemplateRequest;
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.repository.TemplateBulkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateBulkUpsertServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private TemplateBulkRepository templateBulkRepository;
+
+    @Mock
+    private TemplateInvalidationBus templateInvalidationBus;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final TemplateServiceProperties properties = new TemplateServiceProperties();
+    private MockedStatic<SecurityUtils> securityUtils;
+
+    @BeforeEach
+    void setUp() {
+        UserPrincipal principal = mock(UserPrincipal.class);
+        when(principal.getUserId()).thenReturn(USER_ID);
+        securityUtils = mockStatic(SecurityUtils.class);
+        securityUtils.when(SecurityUtils::getUserPrincipal).thenReturn(principal);
+    }
+
+    @AfterEach
+    void tearDown() {
+        securityUtils.close();
+    }
+
+    @Test
+    void upsertTemplates_ShouldWriteValidItemsOnceAndReportEachItem() {
+        UUID createdId = UUID.randomUUID();
+        UUID updatedId = UUID.randomUUID();
+        when(templateBulkRepository.upsert(anyList(), eq(USER_ID), any())).thenReturn(List.of(
+            new TemplateBulkRepository.UpsertedTemplate("welcome", "en", createdId, 0L, 1, true),
+            new TemplateBulkRepository.UpsertedTemplate("welcome", "de", updatedId, 3L, 4, false)));
+
+        BulkUpsertTemplatesResponse response = service().upsertTemplates(new BulkUpsertTemplatesRequest(List.of(
+            item("welcome", "en", "Hi {{name}}"),
+            item("welcome", "de", "Hallo {{name}}"),
+            item("broken", "en", "{{#if x}}unclosed"),
+            item("receipt", "en", "Total {{total}}"),
+            item("welcome", "en", "Duplicate {{name}}"))));
+
+        assertThat(response.getResults()).extracting(BulkUpsertResult::getStatus).containsExactly(
+            BulkUpsertStatus.CREATED, BulkUpsertStatus.UPDATED, BulkUpsertStatus.FAILED, BulkUpsertStatus.UNCHANGED,
+            BulkUpsertStatus.FAILED);
+        assertThat(response.getResults().get(0).getId()).isEqualTo(createdId);
+        assertThat(response.getResults().get(1).getVersion()).isEqualTo(3L);
+        assertThat(response.getResults().get(1).getRevision()).isEqualTo(4);
+        assertThat(response.getResults().get(4).getError()).isEqualTo("Duplicate of item 0");
+        assertThat(List.of(response.getCreated(), response.getUpdated(), response.getUnchanged(), response.getFailed()))
+            .containsExactly(1, 1, 1, 2);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TemplateBulkRepository.TemplateRow>> rows = ArgumentCaptor.forClass(List.class);
+        verify(templateBulkRepository).upsert(rows.capture(), eq(USER_ID), any());
+        assertThat(rows.getValue()).extracting(TemplateBulkRepository.TemplateRow::templateId)
+            .containsExactly("welcome", "welcome", "receipt");
+        assertThat(rows.getValue().get(2).paramSchema()).containsKey("total");
+        verify(templateInvalidationBus).publish(new TemplateInvalidation("welcome", "en", 0L));
+        verify(templateInvalidationBus).publish(new TemplateInvalidation("welcome", "de", 3L));
+    }
+
+    @Test
+    void upsertTemplates_ShouldWriteInChunksAndClearCachesOnceForLargeImports() {
+        properties.getBulk().setChunkSize(2);
+        properties.getBulk().setMaxInvalidations(2);
+        when(templateBulkRepository.upsert(anyList(), eq(USER_ID), any()))
+            .thenReturn(List.of(
+                new TemplateBulkRepository.UpsertedTemplate("a-1", "en", UUID.randomUUID(), 0L, 1, true),
+                new TemplateBulkRepository.UpsertedTemplate("a-2", "en", UUID.randomUUID(), 0L, 1, true)))
+            .thenReturn(List.of(
+                new TemplateBulkRepository.UpsertedTemplate("a-3", "en", UUID.randomUUID(), 0L, 1, true)));
+
+        BulkUpsertTemplatesResponse response = service().upsertTemplates(new BulkUpsertTemplatesRequest(List.of(
+            item("a-1", "en", "1"), item("a-2", "en", "2"), item("a-3", "en", "3"))));
+
+        assertThat(response.getCreated()).isEqualTo(3);
+        verify(templateBulkRepository, times(2)).upsert(anyList(), eq(USER_ID), any());
+        verify(templateInvalidationBus).publish(TemplateInvalidation.all());
+    }
+
+    @Test
+    void upsertTemplates_ShouldNotWriteWhenEveryItemFails() {
+        BulkUpsertTemplatesResponse response = service().upsertTemplates(new BulkUpsertTemplatesRequest(List.of(
+            item("broken", "en", "{{/if}}"))));
+
+        assertThat(response.getFailed()).isEqualTo(1);
+        verifyNoInteractions(templateBulkRepository, templateInvalidationBus, transactionManager);
+    }
+
+    @Test
+    void upsertTemplates_ShouldBoundValidationAcrossConcurrentImports() throws Exception {
+        properties.getBulk().setParallelism(2);
+        TemplateValidator templateValidator = mock(TemplateValidator.class);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        when(templateValidator.analyze(any())).thenAnswer(invocation -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            active.decrementAndGet();
+            throw new IllegalArgumentException("invalid");
+        });
+        TemplateBulkUpsertService service = service(templateValidator);
+        BulkUpsertTemplatesRequest request = new BulkUpsertTemplatesRequest(List.of(
+            item("a-1", "en", "1"), item("a-2", "en", "2"), item("a-3", "en", "3"), item("a-4", "en", "4")));
+
+        CompletableFuture<BulkUpsertTemplatesResponse> other = CompletableFuture.supplyAsync(() -> upsertAs(service, request));
+        BulkUpsertTemplatesResponse response = service.upsertTemplates(request);
+
+        assertThat(response.getFailed()).isEqualTo(4);
+        assertThat(other.get(5, TimeUnit.SECONDS).getFailed()).isEqualTo(4);
+        assertThat(maxActive.get()).isEqualTo(2);
+    }
+
+    /**
+     * The static security mock is only visible on the thread that created it, so a concurrent import stubs its own.
+     */
+    private static BulkUpsertTemplatesResponse upsertAs(TemplateBulkUpsertService service, BulkUpsertTemplatesRequest request) {
+        UserPrincipal principal = mock(UserPrincipal.class);
+        when(principal.getUserId()).thenReturn(USER_ID);
+        try (MockedStatic<SecurityUtils> security = mockStatic(SecurityUtils.class)) {
+            security.when(SecurityUtils::getUserPrincipal).thenReturn(principal);
+            return service.upsertTemplates(request);
+        }
+    }
+
+    private TemplateBulkUpsertService service() {
+        return service(new TemplateValidator(new RenderingEngine(properties,
+            new TemplateSnapshotCache(null, null, properties), new TemplateRenderMetrics(new SimpleMeterRegistry()))));
+    }
+
+    private TemplateBulkUpsertService service(TemplateValidator templateValidator) {
+        TemplateBulkUpsertService service = new TemplateBulkUpsertService(templateValidator, templateBulkRepository,
+            templateInvalidationBus, transactionManager, new SimpleAsyncTaskExecutor(), properties);
+        ReflectionTestUtils.setField(service, "defaultLanguage", "en");
+        return service;
+    }
+
+    private static CreateTemplateRequest item(String templateId, String language, String content) {
+        return new CreateTemplateRequest(templateId, templateId, content, TemplateCategory.EMAIL).language(language);
+    }
+}
@@ -0,0 +1,137 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.exception.ServiceException;
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Template;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateBytecodeCompilerTest {
+
+    private static final Map<String, Object> PARAMS = Map.of(
+        "title", "Order <42>",
+        "empty", List.of(),
+        "zero", 0,
+        "html", "<b>bold</b> & `tick` = x",
+        "customer", Map.of("name", "Ann", "address", Map.of("city", "Riga")),
+        "items", List.of(
+            Map.of("name", "Pen", "qty", 2, "tags", List.of("blue", "cheap")),
+            Map.of("name", "Ink", "qty", 0, "tags", List.of())),
+        "totals", orderedMap("net", 10, "tax", 2));
+
+    @Mock
+    private TemplateSnapshotCache templateSnapshotCache;
+
+    private final Handlebars handlebars = new Handlebars();
+    private final BytecodeRuntime runtime = new BytecodeRuntime(handlebars);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(templateSnapshotCache.findLocalized("row", "en"))
+            .thenReturn(Optional.of(snapshot("row", "<li>{{@index}}:{{name}} ({{../title}})</li>")));
+        lenient().when(templateSnapshotCache.findLocalized("helper-row", "en"))
+            .thenReturn(Optional.of(snapshot("helper-row", "<li>{{lookup this 'name'}}:{{> row}}</li>")));
+        lenient().when(templateSnapshotCache.findLocalized("loop", "en"))
+            .thenReturn(Optional.of(snapshot("loop", "{{#each items}}{{> loop}}{{/each}}")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "Plain text only",
+        "Hi {{customer.name}} from {{customer.address.city}}, {{missing}}{{customer.missing.deep}}!",
+        "{{html}}|{{{html}}}|{{&html}}",
+        "\\{{title}} {{title}}",
+        "{{#if customer}}yes{{else}}no{{/if}} {{#if empty}}yes{{else}}no{{/if}} {{#if zero}}yes{{else}}no{{/if}}",
+        "{{#if missing}}a{{else if zero}}b{{else if title}}c{{else}}d{{/if}}",
+        "{{#unless empty}}none{{else}}some{{/unless}}",
+        "{{#with customer}}{{name}} {{address.city}} {{title}} {{../title}}{{/with}}{{#with missing}}x{{else}}no{{/with}}",
+        "{{#each items}}{{@index}}{{@first}}{{@last}}:{{name}}x{{qty}} {{title}}"
+            + "{{#each tags}}[{{this}}/{{../name}}/{{../../title}}/{{@index}}]{{else}}-{{/each}};{{/each}}",
+        "{{#each totals}}{{@key}}={{this}}{{#if @last}}.{{else}},{{/if}}{{/each}}",
+        "{{#each empty}}x{{else}}nothing{{/each}}{{#each missing}}x{{/each}}",
+        "{{items.1.name}} {{items.[0].name}} {{items.9.name}}",
+        "{{#each items}}{{#with this}}{{name}}{{/with}}{{/each}}"
+    })
+    void compile_ShouldRenderLikeTheInterpreter(String content) throws IOException {
+        Template interpreted = handlebars.compileInline(content);
+
+        BytecodeTemplate compiled = TemplateBytecodeCompiler.compile(interpreted, runtime, name -> handlebars.helper(name) != null);
+
+        assertThat(compiled).isNotNull();
+        assertThat(compiled.apply(PARAMS)).isEqualTo(interpreted.apply(PARAMS));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{{lookup customer 'name'}}",
+        "{{#each items as |item|}}{{item.name}}{{/each}}",
+        "{{#customer}}{{name}}{{/customer}}",
+        "{{^items}}none{{/items}}",
+        "{{> row customer}}",
+        "{{@root.title}}"
+    })
+    void compile_ShouldLeaveUnsupportedConstructsToTheInterpreter(String content) throws IOException {
+        Template interpreted = handlebars.compileInline(content);
+
+        assertThat(TemplateBytecodeCompiler.compile(interpreted, runtime, name -> handlebars.helper(name) != null)).isNull();
+    }
+
+    @Test
+    void render_ShouldMatchTheInterpreterAcrossCompiledAndInterpretedPartials() {
+        RenderingEngine interpreted = engine(TemplateServiceProperties.RenderBackend.INTERPRETED);
+        RenderingEngine bytecode = engine(TemplateServiceProperties.RenderBackend.BYTECODE);
+        TemplateSnapshot list = snapshot("list", "<h1>{{title}}</h1><ul>{{#each items}}{{> row}}{{> helper-row}}{{/each}}</ul>");
+
+        String expected = interpreted.render(list, PARAMS);
+
+        assertThat(bytecode.render(list, PARAMS)).isEqualTo(expected)
+            .startsWith("<h1>Order &lt;42&gt;</h1><ul><li>0:Pen (Order &lt;42&gt;)</li>");
+    }
+
+    @Test
+    void render_ShouldFailOnRecursivePartials() {
+        RenderingEngine bytecode = engine(TemplateServiceProperties.RenderBackend.BYTECODE);
+
+        assertThatThrownBy(() -> bytecode.render(snapshot("tree", "{{> loop}}"), PARAMS))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("loop");
+    }
+
+    private RenderingEngine engine(TemplateServiceProperties.RenderBackend backend) {
+        TemplateServiceProperties properties = new TemplateServiceProperties();
+        properties.getRender().setBackend(backend);
+        return new RenderingEngine(properties, templateSnapshotCache, new TemplateRenderMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static Map<String, Object> orderedMap(String k1, Object v1, String k2, Object v2) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(k1, v1);
+        map.put(k2, v2);
+        return map;
+    }
+
+    private static TemplateSnapshot snapshot(String templateId, String content) {
+        return new TemplateSnapshot(UUID.randomUUID(), templateId, "en", templateId, null,
+            TemplateCategory.EMAIL, 1L, content, Map.of());
+    }
+}
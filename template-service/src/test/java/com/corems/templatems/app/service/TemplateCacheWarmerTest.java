@@ -0,0 +1,102 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.repository.TemplateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateCacheWarmerTest {
+
+    @Mock
+    private TemplateRepository templateRepository;
+
+    @Mock
+    private TemplateSnapshotCache templateSnapshotCache;
+
+    @Mock
+    private TemplateInvalidationBus templateInvalidationBus;
+
+    @Mock
+    private RenderingEngine renderingEngine;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void run_ShouldCompileSelectedTemplatesAndReportUpWhenDone() throws Exception {
+        TemplateServiceProperties properties = new TemplateServiceProperties();
+        properties.getCache().getWarmup().setCategories(List.of(TemplateCategory.EMAIL));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TemplateCacheWarmer warmer = new TemplateCacheWarmer(templateRepository, templateSnapshotCache, templateInvalidationBus, renderingEngine,
+            entityManager, transactionManager, meterRegistry, properties);
+
+        when(templateInvalidationBus.awaitSubscribed(any())).thenReturn(true);
+        when(templateSnapshotCache.generation()).thenReturn(7L);
+        when(templateRepository.streamLive(List.of(TemplateCategory.EMAIL), List.of())).thenReturn(Stream.of(
+            entity("welcome-email", TemplateCategory.EMAIL, "Hi {{name}}"),
+            entity("broken-email", TemplateCategory.EMAIL, "{{#if}}"),
+            entity("changed-email", TemplateCategory.EMAIL, "Hello {{name}}")
+        ));
+        when(templateSnapshotCache.prime(any(), eq(7L))).thenAnswer(invocation ->
+            !invocation.<TemplateSnapshot>getArgument(0).templateId().equals("changed-email"));
+        doAnswer(invocation -> {
+            if (invocation.<TemplateSnapshot>getArgument(0).templateId().equals("broken-email")) {
+                throw new IllegalStateException("compile failed");
+            }
+            return null;
+        }).when(renderingEngine).precompile(any());
+
+        assertThat(warmer.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        warmer.run(null);
+
+        ArgumentCaptor<TemplateSnapshot> primed = ArgumentCaptor.forClass(TemplateSnapshot.class);
+        verify(templateSnapshotCache, times(3)).prime(primed.capture(), eq(7L));
+        assertThat(primed.getAllValues()).extracting(TemplateSnapshot::templateId)
+            .containsExactly("welcome-email", "broken-email", "changed-email");
+        verify(entityManager, times(3)).detach(any());
+        verify(renderingEngine, times(2)).precompile(any());
+
+        assertThat(warmer.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(warmer.health().getDetails()).containsEntry("compiled", 1).containsEntry("failed", 1)
+            .containsEntry("skipped", 1);
+        assertThat(meterRegistry.get("templates.warmup.duration").timer().count()).isEqualTo(1);
+    }
+
+    private static TemplateEntity entity(String templateId, TemplateCategory category, String content) {
+        return TemplateEntity.builder()
+                .uuid(UUID.randomUUID())
+                .templateId(templateId)
+                .language("en")
+                .name(templateId)
+                .category(category)
+                .content(content)
+                .version(1L)
+                .build();
+    }
+}
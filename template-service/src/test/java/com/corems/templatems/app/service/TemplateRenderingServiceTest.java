@@ -0,0 +1,74 @@
+package com.corems.templatems.app.service;
+
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateRenderingServiceTest {
+
+    @Mock
+    private TemplateSnapshotCache templateSnapshotCache;
+
+    @Mock
+    private RenderingEngine renderingEngine;
+
+    @Test
+    void render_ShouldPassParamsThroughWithoutTemplateReferences() {
+        TemplateRenderingService service = service();
+        TemplateSnapshot invoice = snapshot("invoice", "{{#each rows}}{{name}}{{/each}}");
+        Map<String, Object> params = Map.of("rows", List.of(Map.of("name", "Pen")));
+
+        service.render(invoice, params);
+
+        verify(renderingEngine).render(eq(invoice), same(params));
+    }
+
+    @Test
+    void render_ShouldOverlayReferencedContentWithoutCopyingParams() {
+        TemplateRenderingService service = service();
+        List<Map<String, Object>> rows = List.of(Map.of("name", "Pen"));
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("rows", rows);
+        params.put("template_footer", true);
+        when(templateSnapshotCache.findLocalized("footer", "en")).thenReturn(Optional.of(snapshot("footer", "<footer/>")));
+
+        service.render(snapshot("invoice", "{{{template_footer}}}"), params);
+
+        ArgumentCaptor<Map<String, Object>> rendered = ArgumentCaptor.captor();
+        verify(renderingEngine).render(any(), rendered.capture());
+        Map<String, Object> resolved = rendered.getValue();
+        assertThat(resolved).containsExactly(entry("rows", rows), entry("template_footer", "<footer/>"));
+        assertThat(resolved.get("rows")).isSameAs(rows);
+        assertThat(params).containsEntry("template_footer", true);
+    }
+
+    private TemplateRenderingService service() {
+        return new TemplateRenderingService(templateSnapshotCache, renderingEngine,
+            new RenderedOutputCache(new TemplateServiceProperties()), new TemplateRenderMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static TemplateSnapshot snapshot(String templateId, String content) {
+        return new TemplateSnapshot(UUID.randomUUID(), templateId, "en", templateId, null,
+            TemplateCategory.EMAIL, 1L, content, Map.of());
+    }
+}
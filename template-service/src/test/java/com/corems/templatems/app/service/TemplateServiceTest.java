@@ -1,13 +1,49 @@
 package com.corems.templatems.app.service;
 
+import com.corems.common.exception.ServiceException;
+import com.corems.common.security.SecurityUtils;
+import com.corems.common.security.UserPrincipal;
+import com.corems.templatems.api.model.SetTemplateRevisionRequest;
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.api.model.TemplatePagedResponse;
+import com.corems.templatems.api.model.TemplateResponse;
+import com.corems.templatems.api.model.UpdateTemplateRequest;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.entity.TemplateRevisionEntity;
+import com.corems.templatems.app.entity.TemplateSummaryEntity;
 import com.corems.templatems.app.repository.TemplateRepository;
+import com.corems.templatems.app.repository.TemplateRevisionRepository;
+import com.corems.templatems.app.repository.TemplateSummaryRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TemplateManagementServiceTest {
@@ -15,9 +51,18 @@ class TemplateManagementServiceTest {
     @Mock
     private TemplateRepository templateRepository;
 
+    @Mock
+    private TemplateRevisionRepository templateRevisionRepository;
+
+    @Mock
+    private TemplateSummaryRepository templateSummaryRepository;
+
     @Mock
     private TemplateValidator templateValidator;
 
+    @Mock
+    private TemplateInvalidationBus templateInvalidationBus;
+
     @InjectMocks
     private TemplateManagementService templateManagementService;
 
@@ -25,4 +70,167 @@ class TemplateManagementServiceTest {
     void serviceCanBeInstantiated() {
         assertThat(templateManagementService).isNotNull();
     }
+
+    @Test
+    void listTemplates_ShouldReadSummariesWithoutContent() {
+        TemplateSummaryEntity summary = new TemplateSummaryEntity();
+        ReflectionTestUtils.setField(summary, "uuid", UUID.randomUUID());
+        ReflectionTestUtils.setField(summary, "templateId", "welcome-email");
+        ReflectionTestUtils.setField(summary, "language", "en");
+        ReflectionTestUtils.setField(summary, "category", TemplateCategory.EMAIL);
+        ReflectionTestUtils.setField(summary, "contentLength", 42);
+        ReflectionTestUtils.setField(summary, "contentHash", "ab12");
+        ReflectionTestUtils.setField(summary, "createdAt", Instant.now());
+        ReflectionTestUtils.setField(summary, "updatedAt", Instant.now());
+        when(templateSummaryRepository.findAllByQueryParams(any()))
+            .thenReturn(new PageImpl<>(List.of(summary), PageRequest.of(0, 20), 1));
+
+        TemplatePagedResponse response = templateManagementService.listTemplates(Optional.empty(), Optional.empty(),
+            Optional.empty(), Optional.empty(), Optional.empty(), Optional.of("summary"));
+
+        TemplateResponse item = response.getItems().getFirst();
+        assertThat(item.getTemplateId()).isEqualTo("welcome-email");
+        assertThat(item.getContentLength()).isEqualTo(42);
+        assertThat(item.getContentHash()).isEqualTo("ab12");
+        assertThat(item.getContent()).isNull();
+        assertThat(item.getParamSchema()).isNull();
+        verifyNoInteractions(templateRepository);
+    }
+
+    @Test
+    void listTemplates_ShouldRunSearchWithFiltersOrSortThroughQueryParams() {
+        when(templateSummaryRepository.findAllByQueryParams(any()))
+            .thenReturn(new PageImpl<>(List.of(summary(1L, Instant.now())), PageRequest.of(1, 10), 11));
+
+        TemplatePagedResponse response = templateManagementService.listTemplates(Optional.of(2), Optional.of(10),
+            Optional.of("updatedAt:desc,name"), Optional.of("welcome"), Optional.of(List.of("category:EMAIL")),
+            Optional.of("summary"));
+
+        assertThat(response.getPage()).isEqualTo(2);
+        assertThat(response.getTotalElements()).isEqualTo(11);
+        assertThat(response.getItems()).extracting(TemplateResponse::getTemplateId).containsExactly("template-1");
+        verify(templateSummaryRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verifyNoInteractions(templateRepository);
+    }
+
+    @Test
+    void listTemplates_ShouldRankSearchWithoutSortOrFilter() {
+        when(templateRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(Page.empty());
+
+        templateManagementService.listTemplates(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of("welcome"),
+            Optional.of(List.of()), Optional.empty());
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(templateRepository).findAll(any(Specification.class), pageable.capture());
+        assertThat(pageable.getValue().getSort().isUnsorted()).isTrue();
+        verify(templateRepository, never()).findAllByQueryParams(any());
+    }
+
+    @Test
+    void scrollTemplates_ShouldReturnCursorAfterLastItemOfFullPage() {
+        Instant updatedAt = Instant.parse("2026-10-17T10:15:30.123456Z");
+        when(templateSummaryRepository.findBy(any(Specification.class), any()))
+            .thenReturn(List.of(summary(1L, updatedAt), summary(2L, updatedAt), summary(3L, updatedAt)));
+
+        TemplatePagedResponse response = templateManagementService.scrollTemplates(Optional.empty(), Optional.of(2),
+            Optional.empty(), Optional.empty(), Optional.of("summary"), Optional.empty());
+
+        assertThat(response.getItems()).hasSize(2);
+        assertThat(response.getPage()).isEqualTo(1);
+        assertThat(response.getTotalElements()).isNull();
+        assertThat(TemplateCursor.decode(response.getNextCursor())).isEqualTo(new TemplateCursor(updatedAt, 2L, 2));
+        verifyNoInteractions(templateRepository);
+    }
+
+    @Test
+    void scrollTemplates_ShouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> templateManagementService.scrollTemplates(Optional.of("not-a-cursor"), Optional.empty(),
+            Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void scrollTemplates_ShouldRejectUnknownCategory() {
+        assertThatThrownBy(() -> templateManagementService.scrollTemplates(Optional.empty(), Optional.empty(),
+            Optional.of("FAX"), Optional.empty(), Optional.empty(), Optional.empty()))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("Unknown category 'FAX'");
+        verifyNoInteractions(templateRepository);
+    }
+
+    @Test
+    void updateTemplate_ShouldWriteNextRevisionForTheTemplate() {
+        TemplateEntity entity = template(1);
+        when(templateRepository.findByUuidAndIsDeletedFalse(entity.getUuid())).thenReturn(Optional.of(entity));
+        when(templateRepository.saveAndFlush(entity)).thenReturn(entity);
+        when(templateRevisionRepository.findLatestRevision(entity.getUuid())).thenReturn(3);
+
+        TemplateResponse response;
+        try (MockedStatic<SecurityUtils> securityUtils = mockStatic(SecurityUtils.class)) {
+            securityUtils.when(SecurityUtils::getUserPrincipal).thenReturn(mock(UserPrincipal.class));
+            response = templateManagementService.updateTemplateById(entity.getUuid(), new UpdateTemplateRequest().name("Welcome"));
+        }
+
+        ArgumentCaptor<TemplateRevisionEntity> revision = ArgumentCaptor.forClass(TemplateRevisionEntity.class);
+        verify(templateRevisionRepository).save(revision.capture());
+        assertThat(revision.getValue().getRevision()).isEqualTo(4);
+        assertThat(revision.getValue().getName()).isEqualTo("Welcome");
+        assertThat(response.getRevision()).isEqualTo(4);
+    }
+
+    @Test
+    void setTemplateRevision_ShouldRestoreRevisionWithoutWritingOne() {
+        TemplateEntity entity = template(3);
+        when(templateRepository.findByUuidAndIsDeletedFalse(entity.getUuid())).thenReturn(Optional.of(entity));
+        when(templateRepository.saveAndFlush(entity)).thenReturn(entity);
+        when(templateRevisionRepository.findByTemplateUuidAndRevision(entity.getUuid(), 1))
+            .thenReturn(Optional.of(TemplateRevisionEntity.builder()
+                .templateUuid(entity.getUuid())
+                .templateId("welcome-email")
+                .language("en")
+                .revision(1)
+                .name("Original")
+                .content("Hi {{name}}")
+                .category(TemplateCategory.EMAIL)
+                .paramSchema(Map.of())
+                .build()));
+
+        TemplateResponse response;
+        try (MockedStatic<SecurityUtils> securityUtils = mockStatic(SecurityUtils.class)) {
+            securityUtils.when(SecurityUtils::getUserPrincipal).thenReturn(mock(UserPrincipal.class));
+            response = templateManagementService.setTemplateRevision(entity.getUuid(), new SetTemplateRevisionRequest(1));
+        }
+
+        assertThat(response.getRevision()).isEqualTo(1);
+        assertThat(response.getContent()).isEqualTo("Hi {{name}}");
+        assertThat(response.getName()).isEqualTo("Original");
+        verify(templateRevisionRepository, never()).save(any());
+        verify(templateInvalidationBus).publish(TemplateInvalidation.of(entity));
+    }
+
+    private static TemplateEntity template(int revision) {
+        return TemplateEntity.builder()
+                .uuid(UUID.randomUUID())
+                .templateId("welcome-email")
+                .language("en")
+                .name("Welcome Email")
+                .content("Hello {{name}}")
+                .category(TemplateCategory.EMAIL)
+                .revision(revision)
+                .version(2L)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+    }
+
+    private static TemplateSummaryEntity summary(Long id, Instant updatedAt) {
+        TemplateSummaryEntity summary = new TemplateSummaryEntity();
+        ReflectionTestUtils.setField(summary, "id", id);
+        ReflectionTestUtils.setField(summary, "uuid", UUID.randomUUID());
+        ReflectionTestUtils.setField(summary, "templateId", "template-" + id);
+        ReflectionTestUtils.setField(summary, "createdAt", updatedAt);
+        ReflectionTestUtils.setField(summary, "updatedAt", updatedAt);
+        return summary;
+    }
 }
@@ -0,0 +1,207 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.exception.ServiceException;
+import com.corems.templatems.api.model.TemplateCategory;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import com.corems.templatems.app.entity.TemplateEntity;
+import com.corems.templatems.app.entity.TemplateRevisionEntity;
+import com.corems.templatems.app.repository.TemplateRepository;
+import com.corems.templatems.app.repository.TemplateRevisionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateSnapshotCacheTest {
+
+    @Mock
+    private TemplateRepository templateRepository;
+
+    @Mock
+    private TemplateRevisionRepository templateRevisionRepository;
+
+    private TemplateSnapshotCache templateSnapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        templateSnapshotCache = new TemplateSnapshotCache(templateRepository, templateRevisionRepository, new TemplateServiceProperties());
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeFromMemory() {
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en"))
+            .thenReturn(Optional.of(entity("welcome-email", "en", 3L)));
+
+        TemplateSnapshot first = templateSnapshotCache.get("welcome-email", "en");
+        TemplateSnapshot second = templateSnapshotCache.get("welcome-email", "en");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.version()).isEqualTo(3L);
+        verify(templateRepository, times(1)).findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en");
+    }
+
+    @Test
+    void evict_ShouldReloadOnNextGet() {
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en"))
+            .thenReturn(Optional.of(entity("welcome-email", "en", 1L)))
+            .thenReturn(Optional.of(entity("welcome-email", "en", 2L)));
+
+        templateSnapshotCache.get("welcome-email", "en");
+        templateSnapshotCache.evict("welcome-email", "en");
+
+        assertThat(templateSnapshotCache.get("welcome-email", "en").version()).isEqualTo(2L);
+    }
+
+    @Test
+    void prime_ShouldRejectSnapshotReadBeforeAnInvalidation() {
+        long generation = templateSnapshotCache.generation();
+        templateSnapshotCache.onTemplateInvalidation(new TemplateInvalidation("welcome-email", "en", 2L));
+
+        assertThat(templateSnapshotCache.prime(TemplateSnapshot.of(entity("welcome-email", "en", 1L)), generation)).isFalse();
+        assertThat(templateSnapshotCache.prime(TemplateSnapshot.of(entity("header", "en", 1L)), generation)).isFalse();
+
+        TemplateSnapshot current = TemplateSnapshot.of(entity("welcome-email", "en", 2L));
+        assertThat(templateSnapshotCache.prime(current, templateSnapshotCache.generation())).isTrue();
+        assertThat(templateSnapshotCache.get("welcome-email", "en")).isSameAs(current);
+    }
+
+    @Test
+    void get_WhenMissing_ShouldThrowAndNotCacheAbsence() {
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("missing", "en"))
+            .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> templateSnapshotCache.get("missing", "en")).isInstanceOf(ServiceException.class);
+        assertThatThrownBy(() -> templateSnapshotCache.get("missing", "en")).isInstanceOf(ServiceException.class);
+        verify(templateRepository, times(2)).findByTemplateIdAndLanguageAndIsDeletedFalse("missing", "en");
+    }
+
+    @Test
+    void get_WhenStoredSchemaNoLongerCompiles_ShouldStillLoad() {
+        TemplateEntity legacy = entity("welcome-email", "en", 1L);
+        legacy.setParamSchema(Map.of("name", Map.of("required", true, "type", "text", "pattern", "(")));
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en"))
+            .thenReturn(Optional.of(legacy));
+
+        TemplateSnapshot snapshot = templateSnapshotCache.get("welcome-email", "en");
+
+        assertThat(snapshot.paramValidator().check(Map.of("name", Map.of("first", "Ann")))).isNull();
+        assertThat(snapshot.paramValidator().check(Map.of())).isNotNull();
+    }
+
+    @Test
+    void findLocalized_ShouldFallBackToDefaultLanguageAndRememberMissingVariant() {
+        ReflectionTestUtils.setField(templateSnapshotCache, "defaultLanguage", "en");
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("header", "de"))
+            .thenReturn(Optional.empty());
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("header", "en"))
+            .thenReturn(Optional.of(entity("header", "en", 1L)));
+
+        assertThat(templateSnapshotCache.findLocalized("header", "de")).get().extracting(TemplateSnapshot::language).isEqualTo("en");
+        assertThat(templateSnapshotCache.findLocalized("header", "de")).isPresent();
+        verify(templateRepository, times(1)).findByTemplateIdAndLanguageAndIsDeletedFalse("header", "de");
+    }
+
+    @Test
+    void findRevision_ShouldBePinnedAndSurviveInvalidations() {
+        TemplateEntity current = entity("welcome-email", "en", 5L);
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en"))
+            .thenReturn(Optional.of(current));
+        when(templateRevisionRepository.findByTemplateUuidAndRevision(current.getUuid(), 2))
+            .thenReturn(Optional.of(revision(current.getUuid(), "welcome-email", 2)));
+
+        TemplateSnapshot pinned = templateSnapshotCache.get("welcome-email", "en", 2);
+        templateSnapshotCache.onTemplateInvalidation(new TemplateInvalidation("welcome-email", "en", 5L));
+        templateSnapshotCache.onTemplateInvalidation(TemplateInvalidation.all());
+
+        assertThat(templateSnapshotCache.get("welcome-email", "en", 2)).isSameAs(pinned);
+        assertThat(pinned.pinned()).isTrue();
+        assertThat(pinned.cacheKey()).isEqualTo(current.getUuid() + "@2");
+        assertThat(pinned.etag()).isEqualTo("\"" + current.getUuid() + "@2\"");
+        verify(templateRevisionRepository, times(1)).findByTemplateUuidAndRevision(current.getUuid(), 2);
+    }
+
+    @Test
+    void findRevision_WhenMissing_ShouldNotCacheAbsence() {
+        TemplateEntity current = entity("welcome-email", "en", 5L);
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en"))
+            .thenReturn(Optional.of(current));
+        when(templateRevisionRepository.findByTemplateUuidAndRevision(current.getUuid(), 3))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(revision(current.getUuid(), "welcome-email", 3)));
+
+        assertThatThrownBy(() -> templateSnapshotCache.get("welcome-email", "en", 3))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("Revision 3");
+        assertThat(templateSnapshotCache.findRevision("welcome-email", "en", 3)).isPresent();
+    }
+
+    @Test
+    void findRevision_ShouldLookUpHistoryOfDeletedTemplateUnderTheKeyByUuid() {
+        UUID deleted = UUID.randomUUID();
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en"))
+            .thenReturn(Optional.empty());
+        when(templateRepository.findUuidByTemplateIdAndLanguage("welcome-email", "en")).thenReturn(Optional.of(deleted));
+        when(templateRevisionRepository.findByTemplateUuidAndRevision(deleted, 1))
+            .thenReturn(Optional.of(revision(deleted, "welcome", 1)));
+
+        TemplateSnapshot pinned = templateSnapshotCache.get("welcome-email", "en", 1);
+
+        assertThat(pinned.uuid()).isEqualTo(deleted);
+        assertThat(pinned.templateId()).isEqualTo("welcome");
+        assertThat(pinned.etag()).isEqualTo("\"" + deleted + "@1\"");
+        assertThat(templateSnapshotCache.get("welcome-email", "en", 1)).isSameAs(pinned);
+        verify(templateRepository, times(1)).findUuidByTemplateIdAndLanguage("welcome-email", "en");
+    }
+
+    @Test
+    void findRevision_ShouldRememberKeyWithoutTemplateUntilInvalidated() {
+        when(templateRepository.findByTemplateIdAndLanguageAndIsDeletedFalse("welcome-email", "en"))
+            .thenReturn(Optional.empty());
+        when(templateRepository.findUuidByTemplateIdAndLanguage("welcome-email", "en")).thenReturn(Optional.empty());
+
+        assertThat(templateSnapshotCache.findRevision("welcome-email", "en", 1)).isEmpty();
+        assertThat(templateSnapshotCache.findRevision("welcome-email", "en", 2)).isEmpty();
+        templateSnapshotCache.onTemplateInvalidation(new TemplateInvalidation("welcome-email", "en", 1L));
+        assertThat(templateSnapshotCache.findRevision("welcome-email", "en", 1)).isEmpty();
+
+        verify(templateRepository, times(2)).findUuidByTemplateIdAndLanguage("welcome-email", "en");
+    }
+
+    private TemplateRevisionEntity revision(UUID templateUuid, String templateId, int revision) {
+        return TemplateRevisionEntity.builder()
+                .templateUuid(templateUuid)
+                .templateId(templateId)
+                .language("en")
+                .revision(revision)
+                .name("Welcome Email")
+                .category(TemplateCategory.EMAIL)
+                .content("<h1>Welcome, {{name}}!</h1>")
+                .contentHash(TemplateEntity.sha256("<h1>Welcome, {{name}}!</h1>"))
+                .build();
+    }
+
+    private TemplateEntity entity(String templateId, String language, long version) {
+        return TemplateEntity.builder()
+                .uuid(UUID.randomUUID())
+                .templateId(templateId)
+                .language(language)
+                .name("Welcome Email")
+                .category(TemplateCategory.EMAIL)
+                .content("<h1>Welcome, {{name}}!</h1>")
+                .version(version)
+                .build();
+    }
+}
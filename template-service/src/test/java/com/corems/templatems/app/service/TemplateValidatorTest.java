@@ -0,0 +1,62 @@
+package com.corems.templatems.app.service;
+
+import com.corems.common.exception.ServiceException;
+import com.corems.templatems.app.config.TemplateServiceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TemplateValidatorTest {
+
+    private TemplateValidator templateValidator;
+
+    @BeforeEach
+    void setUp() {
+        templateValidator = new TemplateValidator(new RenderingEngine(new TemplateServiceProperties(),
+            new TemplateSnapshotCache(null, null, new TemplateServiceProperties()), new TemplateRenderMetrics(new SimpleMeterRegistry())));
+    }
+
+    @Test
+    void analyze_ShouldDeriveSchemaFromTemplateStructure() {
+        String content = """
+            Hi {{user.name}}, {{{signature}}}
+            {{#each items as |item i|}}{{i}}: {{item.sku}} x {{quantity}} for {{../currency}}{{/each}}
+            {{#with address}}{{street}}{{/with}}
+            {{#if coupon}}Code: {{coupon.code}} {{lookup labels locale}}{{/if}}
+            {{@root.footer}} {{this.total}}
+            """;
+
+        Map<String, Object> parameters = templateValidator.analyze(content).parameters();
+
+        assertThat(parameters).containsOnlyKeys("user", "signature", "items", "currency", "address", "coupon",
+            "footer", "total");
+        assertThat(parameters.get("user")).isEqualTo(Map.of("required", true, "type", "object"));
+        assertThat(parameters.get("signature")).isEqualTo(Map.of("required", true, "type", "string"));
+        assertThat(parameters.get("items")).isEqualTo(Map.of("required", true, "type", "array"));
+        assertThat(parameters.get("currency")).isEqualTo(Map.of("required", false, "type", "string"));
+        assertThat(parameters.get("address")).isEqualTo(Map.of("required", true, "type", "object"));
+        assertThat(parameters.get("coupon")).isEqualTo(Map.of("required", false, "type", "object"));
+        assertThat(parameters.get("footer")).isEqualTo(Map.of("required", true, "type", "string"));
+        assertThat(parameters.get("total")).isEqualTo(Map.of("required", true, "type", "string"));
+    }
+
+    @Test
+    void analyze_ShouldReturnTemplateThatRenders() {
+        TemplateValidator.Analysis analysis = templateValidator.analyze("Hello {{name}}");
+
+        assertThat(analysis.template().text()).isEqualTo("Hello {{name}}");
+        assertThat(analysis.parameters()).containsOnlyKeys("name");
+    }
+
+    @Test
+    void analyze_ShouldRejectInvalidSyntax() {
+        assertThatThrownBy(() -> templateValidator.analyze("{{#if open}}never closed"))
+            .isInstanceOf(ServiceException.class)
+            .hasMessageContaining("Invalid template syntax");
+    }
+}